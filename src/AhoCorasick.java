@@ -0,0 +1,221 @@
+/**
+ * The AhoCorasick class finds which of a fixed set of patterns occur in a piece of text, in a single pass over the
+ * text no matter how many patterns there are.
+ *
+ * The patterns are compiled into a trie whose failure links are folded into a full transition table, so matching
+ * costs one array lookup per character of text. Characters that appear in no pattern all share one column of the
+ * table, which keeps the table small even though text can hold any character.
+ *
+ * Key functionalities include:
+ * - Finding any pattern anywhere in the text (firstMatch), or every occurrence of every pattern (forEachMatch).
+ * - Checking whether the text starts with one of the patterns (prefixMatch), using the trie on its own.
+ *
+ * Example of how this class works:
+ *     AhoCorasick automaton = new AhoCorasick(List.of("soundtrack", "artbook"));
+ *     int match = automaton.firstMatch("digital artbook");   // 1, the index of "artbook"
+ *
+ * Note: Matching is exact. Callers that want case-insensitive matching should fold the patterns and the text the
+ * same way before using them. An automaton is immutable once built and can be shared between threads.
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+public class AhoCorasick {
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final String[] patterns;
+    private final int[] asciiColumns = new int[128]; // Table column of each ASCII character, 0 if it appears in no pattern
+    private final Map<Character, Integer> otherColumns = new HashMap<>(); // Table column of every other pattern character
+    private final int columnCount;
+    private final int[] trie; // Trie edges, state * columnCount + column, -1 where there is no edge
+    private final int[] transitions; // Trie edges completed with failure links, so every entry is a valid state
+    private final int[] terminal; // Pattern that ends exactly at each state, -1 if none
+    private final int[][] matches; // Patterns that end at each state, including through its failure links
+
+
+    /**
+     * Compiles an automaton for the given patterns.
+     *
+     * @param patterns The patterns to look for. Each pattern is found by its index in this list.
+     * @throws IllegalArgumentException If a pattern is empty.
+     */
+    public AhoCorasick(List<String> patterns) {
+        this.patterns = patterns.toArray(new String[0]);
+
+        // Give every character used by a pattern its own column; column 0 stands for every other character
+        int columns = 1;
+        int maxStates = 1;
+        for (String pattern : this.patterns) {
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Patterns must not be empty");
+            }
+            maxStates += pattern.length();
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                if (c < 128) {
+                    if (asciiColumns[c] == 0) {
+                        asciiColumns[c] = columns++;
+                    }
+                } else if (!otherColumns.containsKey(c)) {
+                    otherColumns.put(c, columns++);
+                }
+            }
+        }
+        this.columnCount = columns;
+
+        // Build the trie
+        int[] edges = new int[maxStates * columns];
+        Arrays.fill(edges, -1);
+        int[] ends = new int[maxStates];
+        Arrays.fill(ends, -1);
+        int stateCount = 1; // State 0 is the root
+        for (int p = 0; p < this.patterns.length; p++) {
+            int state = 0;
+            for (int i = 0; i < this.patterns[p].length(); i++) {
+                int edge = state * columns + column(this.patterns[p].charAt(i));
+                if (edges[edge] < 0) {
+                    edges[edge] = stateCount++;
+                }
+                state = edges[edge];
+            }
+            if (ends[state] < 0) {
+                ends[state] = p; // Repeated patterns are reported as their first copy
+            }
+        }
+        this.trie = Arrays.copyOf(edges, stateCount * columns);
+        this.terminal = Arrays.copyOf(ends, stateCount);
+
+        // Breadth-first over the trie, filling in failure transitions and the matches of each state
+        this.transitions = new int[stateCount * columns];
+        this.matches = new int[stateCount][];
+        int[] failure = new int[stateCount];
+        int[] queue = new int[stateCount];
+        int head = 0;
+        int tail = 0;
+        matches[0] = NO_MATCHES;
+        for (int c = 0; c < columns; c++) {
+            int next = trie[c];
+            if (next < 0) {
+                transitions[c] = 0; // Stay at the root
+            } else {
+                transitions[c] = next;
+                failure[next] = 0;
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            int[] inherited = matches[failure[state]];
+            matches[state] = (terminal[state] < 0) ? inherited : prepend(terminal[state], inherited);
+            for (int c = 0; c < columns; c++) {
+                int next = trie[state * columns + c];
+                int fallback = transitions[failure[state] * columns + c];
+                if (next < 0) {
+                    transitions[state * columns + c] = fallback;
+                } else {
+                    transitions[state * columns + c] = next;
+                    failure[next] = fallback;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * @return How many patterns the automaton was built with.
+     */
+    public int size() {
+        return patterns.length;
+    }
+
+    /**
+     * @param index The index of a pattern.
+     * @return The pattern with that index.
+     */
+    public String pattern(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * Finds the pattern that ends first in the text.
+     *
+     * @param text The text to search.
+     * @return The index of a pattern that occurs in the text, or -1 if none does.
+     */
+    public int firstMatch(CharSequence text) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * columnCount + column(text.charAt(i))];
+            if (matches[state].length > 0) {
+                return matches[state][0];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reports every occurrence of every pattern in the text, in the order they end.
+     * Patterns that end at the same character are reported longest first.
+     *
+     * @param text The text to search.
+     * @param onMatch Receives the index of the pattern for each occurrence.
+     */
+    public void forEachMatch(CharSequence text, IntConsumer onMatch) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * columnCount + column(text.charAt(i))];
+            for (int pattern : matches[state]) {
+                onMatch.accept(pattern);
+            }
+        }
+    }
+
+    /**
+     * Finds the shortest pattern that the text starts with.
+     *
+     * @param text The text to check.
+     * @return The index of a pattern the text starts with, or -1 if it starts with none of them.
+     */
+    public int prefixMatch(CharSequence text) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = trie[state * columnCount + column(text.charAt(i))];
+            if (state < 0) {
+                return -1; // The text has left the trie
+            }
+            if (terminal[state] >= 0) {
+                return terminal[state];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the table column of a character.
+     */
+    private int column(char c) {
+        if (c < 128) {
+            return asciiColumns[c];
+        }
+        Integer column = otherColumns.get(c);
+        return (column == null) ? 0 : column;
+    }
+
+    /**
+     * Returns a copy of the array with the value added at the front.
+     */
+    private static int[] prepend(int value, int[] array) {
+        int[] result = new int[array.length + 1];
+        result[0] = value;
+        System.arraycopy(array, 0, result, 1, array.length);
+        return result;
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * The AliasClassifier class decides which normalized attribute (title, hours_played, languages, ...) an imported
+ * header belongs to, by looking for the attribute's aliases anywhere in the header.
+ *
+ * Every alias of every attribute is compiled into a single AhoCorasick automaton, so a header is classified in one
+ * pass over its characters no matter how many aliases there are. The matches are then resolved with the same
+ * precedence Normalizer has always used:
+ * - **title**: Only while the row has no title yet, and never for headers containing "id" (e.g. "game id").
+ * - **hours_played**, **last_played**, **release_date**, **captions**, **multiplayer**, **singleplayer**,
+ *   **languages**: In that order, the first attribute with an alias in the header wins.
+ *
+ * Aliases are read from a plain text file that users can edit, one attribute per line:
+ *     hours_played: hours, playtime
+ * Blank lines and lines starting with '#' are ignored, aliases are case-insensitive, and lines for attributes that
+ * are not in the list above are ignored. Attributes missing from the file have no aliases.
+ *
+ * Example of how this class works:
+ *     String attribute = AliasClassifier.getActive().classify("total hours", true);   // "hours_played"
+ *
+ * Note: A classifier is immutable once built and can be shared between threads.
+ *
+ * @see Normalizer
+ * @see AhoCorasick
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class AliasClassifier {
+    private static final Path ALIASES_FILE = Paths.get(System.getProperty("user.home"), "GameLoom Exports", "GameLoomAliases.txt");
+    private static volatile AliasClassifier active; // Classifier used by imports, loaded on first use
+
+    // Normalized attributes in order of precedence; bit i of a match mask stands for ATTRIBUTES[i]
+    private static final String[] ATTRIBUTES = {"title", "hours_played", "last_played", "release_date", "captions",
+                                                "multiplayer", "singleplayer", "languages"};
+    private static final int TITLE_BIT = 1;
+    private static final int ID_BIT = 1 << ATTRIBUTES.length; // "id" keeps headers like "game id" from being the title
+
+    private final AhoCorasick automaton;
+    private final int[] masks; // Attributes each pattern of the automaton is an alias of, plus ID_BIT for "id"
+    private final String signature;
+
+
+    /**
+     * Compiles a classifier for the given aliases.
+     *
+     * @param aliases The aliases of each normalized attribute. Unknown attributes are ignored.
+     */
+    public AliasClassifier(Map<String, List<String>> aliases) {
+        // Each distinct alias becomes one pattern, carrying every attribute it belongs to
+        Map<String, Integer> maskByPattern = new LinkedHashMap<>();
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+            for (String alias : aliases.getOrDefault(ATTRIBUTES[i], List.of())) {
+                String folded = alias.trim().toLowerCase(Locale.ROOT);
+                if (!folded.isEmpty()) {
+                    maskByPattern.merge(folded, 1 << i, (a, b) -> a | b);
+                }
+            }
+        }
+        maskByPattern.merge("id", ID_BIT, (a, b) -> a | b);
+
+        this.automaton = new AhoCorasick(new ArrayList<>(maskByPattern.keySet()));
+        this.masks = maskByPattern.values().stream().mapToInt(Integer::intValue).toArray();
+        this.signature = Integer.toHexString(maskByPattern.hashCode()); // Order-independent, like the classification itself
+    }
+
+
+    /**
+     * Returns the classifier used by imports, loading it from the aliases file the first time.
+     *
+     * @return The active classifier.
+     */
+    public static AliasClassifier getActive() {
+        AliasClassifier classifier = active;
+        if (classifier == null) {
+            synchronized (AliasClassifier.class) {
+                if (active == null) {
+                    active = load(ALIASES_FILE);
+                }
+                classifier = active;
+            }
+        }
+        return classifier;
+    }
+
+    /**
+     * Reads the aliases file again, so edits to it apply to the next import.
+     */
+    public static void reload() {
+        active = load(ALIASES_FILE);
+    }
+
+    /**
+     * Loads aliases from a file, writing the default aliases to it first if it doesn't exist yet.
+     * Falls back to the default aliases if the file can't be read.
+     *
+     * @param file The aliases file.
+     * @return The compiled classifier.
+     */
+    public static AliasClassifier load(Path file) {
+        try {
+            if (!Files.exists(file)) {
+                Files.createDirectories(file.getParent());
+                Files.write(file, defaultLines(), StandardCharsets.UTF_8);
+            }
+            return new AliasClassifier(parse(Files.readAllLines(file, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new AliasClassifier(parse(defaultLines()));
+        }
+    }
+
+    /**
+     * @return The lines of the default aliases file: an explanation and Normalizer's built-in alias lists.
+     */
+    public static List<String> defaultLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("# GameLoom header aliases: an imported column whose header contains one of an attribute's aliases");
+        lines.add("# is imported as that attribute. One attribute per line, aliases separated by commas, case-insensitive.");
+        lines.add("# The first attribute listed below wins when a header contains aliases of several attributes.");
+        lines.add("");
+        String[][] defaults = {Normalizer.title, Normalizer.hours_played, Normalizer.last_played, Normalizer.release_date,
+                               Normalizer.captions, Normalizer.multiplayer, Normalizer.singleplayer, Normalizer.languages};
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+            lines.add(ATTRIBUTES[i] + ": " + String.join(", ", defaults[i]));
+        }
+        return lines;
+    }
+
+    /**
+     * Reads the aliases of each attribute from the lines of an aliases file.
+     */
+    private static Map<String, List<String>> parse(List<String> lines) {
+        Map<String, List<String>> aliases = new LinkedHashMap<>();
+        for (String line : lines) {
+            String entry = line.trim();
+            int colon = entry.indexOf(':');
+            if (entry.isEmpty() || entry.startsWith("#") || colon < 0) {
+                continue; // Blank line, comment, or not an attribute line
+            }
+            String attribute = entry.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            List<String> list = aliases.computeIfAbsent(attribute, k -> new ArrayList<>());
+            for (String alias : entry.substring(colon + 1).split(",")) {
+                list.add(alias);
+            }
+        }
+        return aliases;
+    }
+
+
+    /**
+     * @return A short text that is the same for any two classifiers built from the same aliases, so that
+     *         classifications saved by HeaderCache can be checked against the current aliases.
+     */
+    public String signature() {
+        return signature;
+    }
+
+    /**
+     * Finds the normalized attribute a header belongs to.
+     *
+     * @param key An un-normalized header.
+     * @param titleOpen Whether the row's title still hasn't been found, so the header may be considered as the title.
+     * @return The normalized attribute, or null if the header has no normalized equivalent.
+     */
+    public String classify(String key, boolean titleOpen) {
+        int[] found = {0};
+        automaton.forEachMatch(key, pattern -> found[0] |= masks[pattern]);
+        int mask = found[0];
+
+        if (titleOpen && (mask & TITLE_BIT) != 0 && (mask & ID_BIT) == 0) {
+            return ATTRIBUTES[0];
+        }
+        for (int i = 1; i < ATTRIBUTES.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                return ATTRIBUTES[i];
+            }
+        }
+        return null;
+    }
+}
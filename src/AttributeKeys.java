@@ -0,0 +1,109 @@
+/**
+ * The AttributeKeys class is the registry of every attribute name GameLoom has seen, giving each one a small integer
+ * id. Code that reads the same attribute from many games (sorting, filtering, exporting) resolves the name to its id
+ * once and then reads each game with Game.getAttribute(int), which skips trimming and lower-casing the name again
+ * for every game and looks the attribute up with the registry's own copy of the name.
+ *
+ * Names are registered folded the same way Game.getAttribute folds them (trimmed, lower case), so "Platform " and
+ * "platform" share one id. Ids are handed out in registration order and never change or get reused while GameLoom
+ * runs; the attributes games use most have fixed ids (TITLE, PLATFORM, ...).
+ *
+ * Example of how this class works:
+ *     int hours = AttributeKeys.idOf("hours_played");
+ *     for (Game game : library) {
+ *         total += game.getNumber(hours);
+ *     }
+ *
+ * Note: The registry is shared by every thread, including the threads of a parallel import. Looking up a name that
+ * is already registered takes no lock.
+ *
+ * @see Game
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class AttributeKeys {
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[16]; // Name of each id; replaced by a larger copy when full
+    private static int count = 0; // Number of registered names, only changed while holding the class lock
+
+    // Attributes every game is read by, registered first so their ids are fixed
+    public static final int TITLE = idOf("title");
+    public static final int PLATFORM = idOf("platform");
+    public static final int HOURS_PLAYED = idOf("hours_played");
+    public static final int LAST_PLAYED = idOf("last_played");
+    public static final int RELEASE_DATE = idOf("release_date");
+    public static final int METASCORE = idOf("metascore");
+    public static final int LANGUAGES = idOf("languages");
+
+
+    /**
+     * Returns the id of an attribute name, registering the name if it hasn't been seen before.
+     *
+     * @param key An attribute name (e.g., "Platform"). It is trimmed and lower-cased like in Game.getAttribute.
+     * @return The name's id.
+     */
+    public static int idOf(String key) {
+        String name = key.trim().toLowerCase(); // Both return key itself when it is already folded
+        Integer id = ids.get(name);
+        return (id != null) ? id : register(name);
+    }
+
+    /**
+     * Returns the id of an attribute name without registering it, for lookups of names that may never have been used.
+     *
+     * @param key An attribute name. It is trimmed and lower-cased like in Game.getAttribute.
+     * @return The name's id, or -1 if the name isn't registered.
+     */
+    public static int find(String key) {
+        Integer id = ids.get(key.trim().toLowerCase());
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * @param id An id returned by idOf.
+     * @return The folded attribute name of the id.
+     */
+    public static String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * Returns the registry's copy of an attribute name, so maps keyed on it find the key by reference.
+     * Names that aren't folded are returned as they are, since they can't be registered under themselves.
+     *
+     * @param name An attribute name.
+     * @return The registered copy of the name, or the name itself if it isn't folded.
+     */
+    public static String intern(String name) {
+        String registered = name(idOf(name));
+        return registered.equals(name) ? registered : name;
+    }
+
+    /**
+     * @return How many attribute names are registered. Ids run from 0 to size() - 1.
+     */
+    public static int size() {
+        return ids.size();
+    }
+
+    /**
+     * Gives a new name the next id, unless another thread registered it first.
+     */
+    private static synchronized int register(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (count == names.length) {
+            names = Arrays.copyOf(names, count * 2);
+        }
+        names[count] = name; // Written before the id is published, so name(id) always finds it
+        ids.put(name, count);
+        return count++;
+    }
+}
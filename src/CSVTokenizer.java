@@ -0,0 +1,315 @@
+/**
+ * The CSVTokenizer class splits CSV text into records and fields following RFC 4180, without creating an object per field.
+ *
+ * The tokenizer is a cursor: each call to nextRecord reads one whole record into a reused character buffer, and each
+ * field of that record is exposed as a slice (offset and length) of that buffer. Callers that only need to look at a
+ * field, or only need some of the fields, never have to turn the others into Strings.
+ *
+ * Supported RFC 4180 rules:
+ * - Fields are separated by a single delimiter character (comma, semicolon, or tab).
+ * - Records end at "\r\n", "\n", or "\r", just like BufferedReader.readLine.
+ * - Fields enclosed in double quotes may contain delimiters and line breaks, and a doubled quote ("") inside them
+ *   stands for one quote character. The enclosing quotes are removed from the field.
+ * - A quote only opens a quoted field at the start of a field. Anywhere else it is a literal character, so a stray
+ *   quote in an unquoted value (e.g. 12" Vinyl Edition) never swallows the records after it.
+ *
+ * To stay compatible with the files GameLoom has always imported, the tokenizer is lenient in a few places:
+ * - Whitespace before an opening quote or after a closing quote is ignored (GameLoom exports use ", " between values).
+ * - A field that opens with a quote but does not end with one (e.g. "Title" 2) is kept exactly as written.
+ * - Inside a quoted field, a quote that is not doubled is kept as a literal quote.
+ * - Whitespace around unquoted fields is kept, as RFC 4180 requires; use trimmedField to drop it.
+ *
+ * Example of how this class works:
+ *     CSVTokenizer tokenizer = new CSVTokenizer(reader, ',');
+ *     while (tokenizer.nextRecord()) {
+ *         for (int i = 0; i < tokenizer.fieldCount(); i++) {
+ *             char[] buffer = tokenizer.buffer();
+ *             // use buffer[tokenizer.fieldOffset(i) .. tokenizer.fieldOffset(i) + tokenizer.fieldLength(i)]
+ *         }
+ *     }
+ *
+ * Note: The buffer and slices are only valid until the next call to nextRecord.
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+public class CSVTokenizer {
+    // Quote states of the record scanner (see nextState)
+    protected static final int FIELD_START = 0; // Only whitespace so far in the field, so a quote opens a quoted field
+    protected static final int UNQUOTED = 1; // Inside a field that did not open with a quote
+    protected static final int QUOTED = 2; // Inside a quoted field
+    protected static final int CLOSING_QUOTE = 3; // Just read a quote inside a quoted field, which either closes it or is doubled
+
+    private final Reader in;
+    private final char delimiter;
+    private final char[] input = new char[8192]; // Chunk of unread input
+    private int inputPosition = 0;
+    private int inputLimit = 0;
+    private boolean endOfInput = false;
+
+    private char[] record = new char[256]; // Reused buffer holding the fields of the current record
+    private int recordLength = 0;
+    private int[] offsets = new int[16]; // Start of each field in the record buffer
+    private int[] lengths = new int[16]; // Length of each field in the record buffer
+    private int fieldCount = 0;
+
+
+    /**
+     * Creates a tokenizer that reads records from the given reader.
+     *
+     * @param in The reader to take CSV text from. The tokenizer does its own buffering.
+     * @param delimiter The field delimiter (comma, semicolon, or tab).
+     */
+    public CSVTokenizer(Reader in, char delimiter) {
+        this.in = in;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Creates a tokenizer over CSV text that is already in memory, such as a single header line or pasted text.
+     *
+     * @param text The CSV text.
+     * @param delimiter The field delimiter (comma, semicolon, or tab).
+     */
+    public CSVTokenizer(String text, char delimiter) {
+        this(new StringReader(text), delimiter);
+    }
+
+
+    /**
+     * Reads the next record into the buffer.
+     *
+     * @return true if a record was read, false if the input is used up.
+     * @throws IOException If the underlying reader fails.
+     */
+    public boolean nextRecord() throws IOException {
+        recordLength = 0;
+        fieldCount = 0;
+        if (!fill()) {
+            return false; // Nothing left, not even an empty line
+        }
+
+        int state = FIELD_START;
+        int fieldStart = 0;
+        while (fill()) {
+            char c = input[inputPosition++];
+            if (state != QUOTED) {
+                if (c == delimiter) {
+                    endField(fieldStart);
+                    fieldStart = recordLength;
+                    state = FIELD_START;
+                    continue;
+                }
+                if (c == '\n' || c == '\r') {
+                    if (c == '\r' && fill() && input[inputPosition] == '\n') {
+                        inputPosition++; // Treat "\r\n" as a single line break
+                    }
+                    break;
+                }
+            }
+            state = nextState(state, c, delimiter);
+            append(c);
+        }
+        endField(fieldStart);
+        return true;
+    }
+
+    /**
+     * Moves the quote state past one character of a record. This is the one place the quote rule is defined; the byte
+     * scanners of GLMappedImporter and GLParallelImporter call it too, so every import engine splits records alike.
+     *
+     * A quote only opens a quoted field at the start of the field (after nothing but whitespace); anywhere else it is a
+     * literal character. Inside a quoted field, a doubled quote stands for one quote and a single quote closes the field.
+     * Delimiters and line breaks end the field whenever the state before them is not QUOTED.
+     *
+     * @param state The state before the character (FIELD_START, UNQUOTED, QUOTED, or CLOSING_QUOTE).
+     * @param c The character (or byte, for the byte scanners).
+     * @param delimiter The field delimiter.
+     * @return The state after the character.
+     */
+    protected static int nextState(int state, int c, int delimiter) {
+        if (state == QUOTED) {
+            return (c == '"') ? CLOSING_QUOTE : QUOTED;
+        }
+        if (state == CLOSING_QUOTE && c == '"') {
+            return QUOTED; // A doubled quote, the field goes on
+        }
+        if (c == delimiter || c == '\n' || c == '\r') {
+            return FIELD_START;
+        }
+        if (state == FIELD_START) {
+            if (c == '"') {
+                return QUOTED;
+            }
+            if (c <= ' ') {
+                return FIELD_START; // Whitespace before an opening quote
+            }
+        }
+        return UNQUOTED;
+    }
+
+    /**
+     * @return The number of fields in the current record (at least 1, since an empty line holds one empty field).
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return The reused buffer that field slices point into.
+     */
+    public char[] buffer() {
+        return record;
+    }
+
+    /**
+     * @param index The field index.
+     * @return Where the field starts in the buffer.
+     */
+    public int fieldOffset(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * @param index The field index.
+     * @return How many characters of the buffer the field takes up.
+     */
+    public int fieldLength(int index) {
+        return lengths[index];
+    }
+
+    /**
+     * Creates a String holding the given field.
+     *
+     * @param index The field index.
+     * @return The field's text.
+     */
+    public String field(int index) {
+        return new String(record, offsets[index], lengths[index]);
+    }
+
+    /**
+     * Creates a String holding the given field without surrounding whitespace, the same as field(index).trim()
+     * but without creating the untrimmed String first.
+     *
+     * @param index The field index.
+     * @return The field's text, trimmed.
+     */
+    public String trimmedField(int index) {
+        int start = offsets[index];
+        int end = start + lengths[index];
+        while (start < end && record[start] <= ' ') {
+            start++;
+        }
+        while (end > start && record[end - 1] <= ' ') {
+            end--;
+        }
+        return (start == end) ? "" : new String(record, start, end - start);
+    }
+
+    /**
+     * Reads every field of the next record into Strings.
+     * Convenient for short inputs, like a header line, where allocating per field does not matter.
+     *
+     * @return The fields of the next record, or null if the input is used up.
+     * @throws IOException If the underlying reader fails.
+     */
+    public String[] nextRecordFields() throws IOException {
+        if (!nextRecord()) {
+            return null;
+        }
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = field(i);
+        }
+        return fields;
+    }
+
+    /**
+     * Records the field that started at fieldStart, removing its enclosing quotes if it is quoted.
+     */
+    private void endField(int fieldStart) {
+        int length = unquote(record, fieldStart, recordLength - fieldStart);
+        recordLength = fieldStart + length;
+        if (fieldCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, fieldCount * 2);
+            lengths = Arrays.copyOf(lengths, fieldCount * 2);
+        }
+        offsets[fieldCount] = fieldStart;
+        lengths[fieldCount] = length;
+        fieldCount++;
+    }
+
+    /**
+     * Removes the enclosing quotes of a quoted field in place and turns each doubled quote into a single one.
+     * Fields that do not both start and end with a quote (ignoring surrounding whitespace) are left as they are.
+     *
+     * @param chars The buffer holding the field.
+     * @param start Where the field starts.
+     * @param length How long the field is.
+     * @return The length of the field after unquoting.
+     */
+    protected static int unquote(char[] chars, int start, int length) {
+        int first = start;
+        int last = start + length - 1;
+        while (first <= last && chars[first] <= ' ') {
+            first++;
+        }
+        if (first > last || chars[first] != '"') {
+            return length; // Not a quoted field
+        }
+        while (last > first && chars[last] <= ' ') {
+            last--;
+        }
+        if (last == first || chars[last] != '"') {
+            return length; // Opens with a quote but never closes it, keep it as written
+        }
+
+        int write = start;
+        for (int read = first + 1; read < last; read++) {
+            chars[write++] = chars[read];
+            if (chars[read] == '"' && read + 1 < last && chars[read + 1] == '"') {
+                read++; // A doubled quote stands for one quote
+            }
+        }
+        return write - start;
+    }
+
+    /**
+     * Appends a character to the record buffer, growing it if needed.
+     */
+    private void append(char c) {
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, record.length * 2);
+        }
+        record[recordLength++] = c;
+    }
+
+    /**
+     * Makes sure there is unread input, reading the next chunk if needed.
+     *
+     * @return false once the input is used up.
+     */
+    private boolean fill() throws IOException {
+        if (inputPosition < inputLimit) {
+            return true;
+        }
+        if (endOfInput) {
+            return false;
+        }
+        int read = in.read(input, 0, input.length);
+        if (read <= 0) {
+            endOfInput = true;
+            return false;
+        }
+        inputPosition = 0;
+        inputLimit = read;
+        return true;
+    }
+}
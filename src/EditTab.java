@@ -26,7 +26,8 @@
  * - loadGameAttributes: Loads the attributes of the selected game into input fields.
  * - updateGame: Applies changes to the selected game's attributes and updates the game list.
  * - deleteGame: Removes the selected game from the library with an optional confirmation dialog.
- * - refreshGameList: Refreshes the displayed list of games in the main VBox.
+ * - Undo/Redo buttons: Take back or put back the latest edits, deletions, and manual entries (see LibraryHistory).
+ * - removeGame: Removes a game from the library and both game lists by its id, without rebuilding the main VBox.
  * 
  * Event Handling:
  * - Pressing the 'Enter' key within the value input field triggers the save action.
@@ -57,6 +58,8 @@ public class EditTab {
     private TextField customValueField;
     private Button saveButton;
     private Button deleteButton;
+    private Button undoButton;
+    private Button redoButton;
     private CheckBox deleteSafetyCheck;
     private ArrayList<Game> library;
     private VBox gameList;
@@ -159,8 +162,22 @@ public class EditTab {
         Region saveButtonSpacer = new Region();
         HBox.setHgrow(saveButtonSpacer, Priority.ALWAYS);
         
-        // HBox for key selector, value field, and save button
-        HBox valueBox = new HBox(10, keySelector, valueField, saveButtonSpacer, saveButton);
+        // Undo and redo buttons, which take back (or put back) edits, deletions, and manual entries
+        undoButton = new Button("Undo");
+        undoButton.setOnAction(e -> {
+            if (GUIDriver.undoLastChange()) {
+                filterGames(searchField.getText()); // Show the games as they are now
+            }
+        });
+        redoButton = new Button("Redo");
+        redoButton.setOnAction(e -> {
+            if (GUIDriver.redoLastChange()) {
+                filterGames(searchField.getText());
+            }
+        });
+
+        // HBox for key selector, value field, undo/redo, and save button
+        HBox valueBox = new HBox(10, keySelector, valueField, saveButtonSpacer, undoButton, redoButton, saveButton);
         valueBox.setPadding(new Insets(10));
         valueBox.setAlignment(Pos.CENTER_LEFT); // Align to the left
         valueBox.getStyleClass().add("transparent");
@@ -235,8 +252,9 @@ public class EditTab {
         if (query.isEmpty()) { // If empty, add all games from the library to the game list view
             gameListView.getItems().addAll(library);
         } else { // If not empty, iterate through the library and check each game
+            String foldedQuery = query.toLowerCase(); // Folded once, the games' search texts are already folded
             for (Game game : library) {
-                if (game.toDisplayString().toLowerCase().contains(query.toLowerCase())) {
+                if (game.getSearchText().contains(foldedQuery)) {
                     gameListView.getItems().add(game);
                 }
             }
@@ -289,6 +307,8 @@ public class EditTab {
     private void updateGame() {
         Game selectedGame = gameListView.getSelectionModel().getSelectedItem();
         if (selectedGame != null) {
+            LibraryHistory.Snapshot before = GUIDriver.libraryIndex.getHistory().snapshot(); // Both fields below make one undo step
+
             // Retrieve selected key from the dropdown
             String selectedDisplayName = keySelector.getValue();
             String selectedKey = null;      
@@ -313,7 +333,7 @@ public class EditTab {
                             newValue = "\"" + newValue + "\"";
                         }
                     }
-                    selectedGame.updateAttribute(selectedKey, newValue);
+                    GUIDriver.libraryIndex.update(selectedGame, selectedKey, newValue); // Keeps the index and statistics in step
                     NotificationManager.showNotification("Field updated successfully!", "success");
                 }
             }       
@@ -328,12 +348,15 @@ public class EditTab {
                         customValue = "\"" + customValue + "\"";
                     }
                 }
-                selectedGame.updateAttribute(customKey, customValue);
+                GUIDriver.libraryIndex.update(selectedGame, customKey, customValue);
                 customKeyField.clear();
                 customValueField.clear();
                 NotificationManager.showNotification("Custom field updated successfully!", "success");
             }   
 
+            GUIDriver.updateGameItem(selectedGame); // Shows the edit in the game's item of the main game list
+            GUIDriver.libraryIndex.getHistory().record("Edit " + selectedGame.getTitle(), before);
+
             // Pseudo-refresh to update ListView immediately
             String currentQuery = searchField.getText(); // Capture the current query
             searchField.setText(currentQuery + " "); // Temporarily add a space
@@ -387,18 +410,12 @@ public class EditTab {
                 Optional<ButtonType> result = confirmAlert.showAndWait();
                 if (result.isPresent() && result.get() == yesButton) {
                     // Remove the game from the library and the displayed game list
-                    library.remove(selectedGame);
-                    gameList.getChildren().removeIf(node -> ((Label) ((VBox) ((HBox) node).getChildren().get(1)).getChildren().get(0)).getText().equals(selectedGame.getTitle()));
-                    gameListView.getItems().remove(selectedGame);
-                    refreshGameList();
+                    removeGame(selectedGame);
                     NotificationManager.showNotification("Game deleted successfully!", "success");
                 }
             } else {
                 // Delete the game directly without showing a confirmation dialog
-                library.remove(selectedGame);
-                gameList.getChildren().removeIf(node -> ((Label) ((VBox) ((HBox) node).getChildren().get(1)).getChildren().get(0)).getText().equals(selectedGame.getTitle()));
-                gameListView.getItems().remove(selectedGame);
-                refreshGameList();
+                removeGame(selectedGame);
                 NotificationManager.showNotification("Game deleted without confirmation.", "info");
             }
         } else {
@@ -407,19 +424,18 @@ public class EditTab {
     }
 
     /**
-     * Refreshes the game list displayed in the UI by clearing the current
-     * contents and repopulating it with updated game data from the library.
-     * This ensures that any changes made to the library, such as updates or deletions,
-     * are reflected in the UI.
+     * Removes a game from the library and from both game lists, finding it by its id.
+     * Only the game's own item is removed from the main game list, so other games with the same title stay and the
+     * rest of the list isn't rebuilt.
+     *
+     * @param game The game to delete
      */
-    private void refreshGameList() {
-        // Clear all current children in the game list VBox to prepare for updating
-        gameList.getChildren().clear();
-        // Iterate through each game in the library and add it to the game list
-        for (Game game : library) {
-            // Create a new game item and add it to the game list VBox
-            gameList.getChildren().add(GUIDriver.createGameItem(game.getTitle(), game.toDisplayString()));
-        }
+    private void removeGame(Game game) {
+        LibraryHistory.Snapshot before = GUIDriver.libraryIndex.getHistory().snapshot();
+        GUIDriver.libraryIndex.removeById(game.getId()); // Also drops it from the duplicate index
+        GUIDriver.libraryIndex.getHistory().record("Delete " + game.getTitle(), before);
+        GUIDriver.removeGameItem(game.getId());
+        gameListView.getItems().remove(game);
     }
 
     /**
@@ -0,0 +1,202 @@
+/**
+ * The ExclusionRules class decides which imported rows are not games (streaming apps, DLC, soundtracks, and so on)
+ * and should be left out of the GameLoom library.
+ *
+ * Rules are read from a plain text file that users can edit, one rule per line:
+ *     exact: Netflix              Leaves out titles that are exactly "Netflix"
+ *     prefix: Digital Artbook     Leaves out titles that start with "Digital Artbook"
+ *     contains: Soundtrack        Leaves out titles that contain "Soundtrack" anywhere
+ * A line without a rule type is an exact rule. Blank lines and lines starting with '#' are ignored. All rules are
+ * case-insensitive, and a title's surrounding whitespace and enclosing quotes are ignored.
+ *
+ * The rules are compiled once, so checking a title costs one hash lookup for the exact rules plus one pass over the
+ * title for all of the prefix rules (a trie) and one for all of the contains rules (an AhoCorasick automaton),
+ * no matter how many rules there are.
+ *
+ * Key functionalities include:
+ * - Loading the rules file from the "GameLoom Exports" folder, creating it with the default rules if it is missing.
+ * - Falling back to the default rules (Normalizer.popularApps as exact rules) if the file cannot be read.
+ * - Reporting which rule matched a title, so imports can count rejections per rule.
+ *
+ * Example of how this class works:
+ *     String rule = ExclusionRules.getActive().match("NETFLIX");   // "exact: netflix"
+ *
+ * @see ImportReport
+ * @see AhoCorasick
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public class ExclusionRules {
+    private static final Path RULES_FILE = Paths.get(System.getProperty("user.home"), "GameLoom Exports", "GameLoomExclusions.txt");
+    private static volatile ExclusionRules active; // Rules used by imports, loaded on first use
+
+    private final Set<String> exact = new HashSet<>(); // Case-folded exact rules
+    private final AhoCorasick prefixes; // Case-folded prefix rules, matched with the automaton's trie
+    private final AhoCorasick keywords; // Case-folded contains rules
+    private final int ruleCount;
+
+
+    /**
+     * Compiles a list of rule lines.
+     *
+     * @param lines The lines of a rules file.
+     */
+    public ExclusionRules(List<String> lines) {
+        List<String> prefixRules = new ArrayList<>();
+        List<String> keywordRules = new ArrayList<>();
+        for (String line : lines) {
+            String rule = line.trim();
+            if (rule.isEmpty() || rule.startsWith("#")) {
+                continue; // Blank line or comment
+            }
+            String lowerRule = rule.toLowerCase(Locale.ROOT);
+            if (lowerRule.startsWith("prefix:")) {
+                addRule(prefixRules, rule.substring("prefix:".length()));
+            } else if (lowerRule.startsWith("contains:")) {
+                addRule(keywordRules, rule.substring("contains:".length()));
+            } else if (lowerRule.startsWith("exact:")) {
+                addRule(exact, rule.substring("exact:".length()));
+            } else {
+                addRule(exact, rule);
+            }
+        }
+        this.prefixes = new AhoCorasick(prefixRules);
+        this.keywords = new AhoCorasick(keywordRules);
+        this.ruleCount = exact.size() + prefixRules.size() + keywordRules.size();
+    }
+
+
+    /**
+     * Returns the rules used by imports, loading them from the rules file the first time.
+     *
+     * @return The active rules.
+     */
+    public static ExclusionRules getActive() {
+        ExclusionRules rules = active;
+        if (rules == null) {
+            synchronized (ExclusionRules.class) {
+                if (active == null) {
+                    active = load(RULES_FILE);
+                }
+                rules = active;
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Reads the rules file again, so edits to it apply to the next import.
+     */
+    public static void reload() {
+        active = load(RULES_FILE);
+    }
+
+    /**
+     * Loads rules from a file, writing the default rules to it first if it doesn't exist yet.
+     * Falls back to the default rules if the file can't be read.
+     *
+     * @param file The rules file.
+     * @return The compiled rules.
+     */
+    public static ExclusionRules load(Path file) {
+        try {
+            if (!Files.exists(file)) {
+                Files.createDirectories(file.getParent());
+                Files.write(file, defaultLines(), StandardCharsets.UTF_8);
+            }
+            return new ExclusionRules(Files.readAllLines(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ExclusionRules(defaultLines());
+        }
+    }
+
+    /**
+     * @return The lines of the default rules file: an explanation, some commented-out examples, and every
+     *         entry of Normalizer.popularApps as an exact rule.
+     */
+    public static List<String> defaultLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("# GameLoom exclusion rules: imported rows whose title matches a rule are left out of the library.");
+        lines.add("# One rule per line, case-insensitive. Lines starting with # are ignored.");
+        lines.add("#   exact: <title>       the title is exactly this");
+        lines.add("#   prefix: <text>       the title starts with this");
+        lines.add("#   contains: <text>     the title contains this anywhere");
+        lines.add("# Examples:");
+        lines.add("# prefix: Digital Artbook");
+        lines.add("# contains: Original Soundtrack");
+        lines.add("");
+        for (String app : Normalizer.popularApps) {
+            lines.add("exact: " + app);
+        }
+        return lines;
+    }
+
+
+    /**
+     * Finds the rule that excludes a title.
+     *
+     * @param title The title of an imported row. May be null.
+     * @return The matching rule, e.g. "prefix: digital artbook", or null if the title is not excluded.
+     */
+    public String match(String title) {
+        if (title == null || ruleCount == 0) {
+            return null;
+        }
+        String folded = fold(title);
+        if (exact.contains(folded)) {
+            return "exact: " + folded;
+        }
+        int prefix = prefixes.prefixMatch(folded);
+        if (prefix >= 0) {
+            return "prefix: " + prefixes.pattern(prefix);
+        }
+        int keyword = keywords.firstMatch(folded);
+        if (keyword >= 0) {
+            return "contains: " + keywords.pattern(keyword);
+        }
+        return null;
+    }
+
+    /**
+     * @return How many rules were compiled.
+     */
+    public int size() {
+        return ruleCount;
+    }
+
+    /**
+     * Adds the folded text of a rule to a collection, ignoring rules with no text.
+     */
+    private static void addRule(Collection<String> rules, String text) {
+        String folded = fold(text);
+        if (!folded.isEmpty()) {
+            rules.add(folded);
+        }
+    }
+
+    /**
+     * Case-folds a title or rule, dropping surrounding whitespace and enclosing quotes.
+     */
+    private static String fold(String text) {
+        String trimmed = text.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            trimmed = trimmed.substring(1, trimmed.length() - 1).trim();
+        }
+        return trimmed.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * The FeatureFlags class keeps the yes/no attributes of the library (multiplayer, singleplayer, captions, and any
+ * attribute a user fills with yes/no values) as bitmaps over the library: bit i of a flag's bitmap is set when the
+ * game at position i of the library has the flag. Combining flags then takes one AND or OR per 64 games instead of
+ * a string comparison per game and flag.
+ *
+ * A game has a flag when it has a value for the attribute that isn't a "no": Normalizer stores checked columns
+ * under the column's name (multiplayer = "multiplayer", captions = "english, french"), so any value counts except
+ * empty ones, "N/A", and the FALSE_VALUES below. LibraryStore checks each value once, when it is stored, so
+ * building a bitmap reads a bit per game (Game.isFlagged) instead of comparing its text with every FALSE_VALUE.
+ *
+ * Bitmaps are built the first time a flag is asked for and kept until the library changes. LibraryIndex, which
+ * makes every change to the library, tells this class about them: games added at the end of the library are set in
+ * the bitmaps already built, and any other change (removal, overwrite, edit) drops the bitmaps so they are rebuilt
+ * on the next query.
+ *
+ * Example of how this class works:
+ *     FeatureFlags flags = GUIDriver.libraryIndex.getFlags();
+ *     long[] coop = flags.all(AttributeKeys.find("multiplayer"), AttributeKeys.find("captions"));
+ *     for (Game game : flags.select(coop)) {
+ *         // Every multiplayer game with captions, in library order
+ *     }
+ *
+ * Note: Like LibraryIndex, this class is not thread-safe and is only used from the JavaFX Application Thread.
+ *
+ * @see LibraryIndex
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FeatureFlags {
+    private static final String[] FALSE_VALUES = {"no", "false", "n", "0", "", "n/a"}; // Values that don't set a flag
+
+    private final List<Game> library;
+    private final Map<Integer, long[]> bitmaps = new HashMap<>(); // Attribute id -> bitmap over library positions
+    private final Map<Game, Integer> positions = new IdentityHashMap<>(); // Library position of each game
+    private boolean built = false; // Whether positions (and the bitmaps in the map) match the library
+
+
+    /**
+     * Creates the flags of a library. Nothing is computed until a flag is asked for.
+     *
+     * @param library The library the bitmaps are indexed over.
+     */
+    public FeatureFlags(List<Game> library) {
+        this.library = library;
+    }
+
+
+    /**
+     * Checks whether a value sets a flag. Called by LibraryStore once per stored value (see Game.isFlagged).
+     *
+     * @param value An attribute value, or null if the game doesn't have the attribute.
+     * @return true if the value sets a flag.
+     */
+    public static boolean isSet(String value) {
+        if (value == null) {
+            return false;
+        }
+        String trimmed = value.trim();
+        for (String word : FALSE_VALUES) {
+            if (trimmed.equalsIgnoreCase(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the bitmap of a flag, building it if needed. The bitmap must not be modified.
+     *
+     * @param attributeId The AttributeKeys id of the flag's attribute, or -1 for a name that isn't registered (see
+     *                    AttributeKeys.find), which no game has.
+     * @return The bitmap, with bit i set if the game at library position i has the flag.
+     */
+    public long[] bitmap(int attributeId) {
+        validate();
+        if (attributeId < 0) {
+            return new long[words(library.size())];
+        }
+        long[] bitmap = bitmaps.get(attributeId);
+        if (bitmap == null) {
+            bitmap = new long[words(library.size())];
+            for (int i = 0; i < library.size(); i++) {
+                if (library.get(i).isFlagged(attributeId)) {
+                    bitmap[i >>> 6] |= 1L << i;
+                }
+            }
+            bitmaps.put(attributeId, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @param attributeIds The AttributeKeys ids of the flags, -1 for names that aren't registered.
+     * @return A new bitmap of the games that have every one of the flags (every game if no flag is given, none if
+     *         one of them isn't registered).
+     */
+    public long[] all(int... attributeIds) {
+        validate();
+        long[] result = new long[words(library.size())];
+        fill(result, library.size());
+        for (int id : attributeIds) {
+            long[] bitmap = bitmap(id);
+            for (int w = 0; w < result.length; w++) {
+                result[w] &= bitmap[w];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param attributeIds The AttributeKeys ids of the flags, -1 for names that aren't registered.
+     * @return A new bitmap of the games that have at least one of the flags (names that aren't registered add none).
+     */
+    public long[] any(int... attributeIds) {
+        validate();
+        long[] result = new long[words(library.size())];
+        for (int id : attributeIds) {
+            long[] bitmap = bitmap(id);
+            for (int w = 0; w < result.length; w++) {
+                result[w] |= bitmap[w];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks a game against a bitmap, for filtering a list that is only part of the library (a tab, search results).
+     *
+     * @param bitmap A bitmap returned by this object since the library last changed.
+     * @param game A game.
+     * @return true if the game is in the library and its bit is set.
+     */
+    public boolean contains(long[] bitmap, Game game) {
+        validate();
+        Integer position = positions.get(game);
+        return position != null && (bitmap[position >>> 6] & (1L << position)) != 0;
+    }
+
+    /**
+     * @param bitmap A bitmap returned by this object since the library last changed.
+     * @return The games whose bits are set, in library order.
+     */
+    public List<Game> select(long[] bitmap) {
+        validate();
+        List<Game> games = new ArrayList<>();
+        for (int w = 0; w < bitmap.length; w++) {
+            long word = bitmap[w];
+            while (word != 0) { // One step per set bit, skipping the games in between
+                games.add(library.get((w << 6) + Long.numberOfTrailingZeros(word)));
+                word &= word - 1;
+            }
+        }
+        return games;
+    }
+
+
+    /**
+     * Called by LibraryIndex after a game was added at the end of the library.
+     *
+     * @param game The game that was added.
+     */
+    public void added(Game game) {
+        if (!built || library.size() != positions.size() + 1 || library.get(library.size() - 1) != game) {
+            invalidate(); // Not a plain append, start over on the next query
+            return;
+        }
+        int position = library.size() - 1;
+        positions.put(game, position);
+        for (Map.Entry<Integer, long[]> entry : bitmaps.entrySet()) {
+            long[] bitmap = entry.getValue();
+            if ((position >>> 6) == bitmap.length) {
+                bitmap = Arrays.copyOf(bitmap, Math.max(1, bitmap.length * 2));
+                entry.setValue(bitmap);
+            }
+            if (game.isFlagged(entry.getKey())) {
+                bitmap[position >>> 6] |= 1L << position;
+            }
+        }
+    }
+
+    /**
+     * Called by LibraryIndex after games were removed or their attributes changed. The bitmaps are rebuilt on the
+     * next query.
+     */
+    public void invalidate() {
+        built = false;
+        bitmaps.clear();
+        positions.clear();
+    }
+
+    /**
+     * Records the position of every game, if the library changed since they were last recorded.
+     */
+    private void validate() {
+        if (built) {
+            return;
+        }
+        for (int i = 0; i < library.size(); i++) {
+            positions.put(library.get(i), i);
+        }
+        built = true;
+    }
+
+    /**
+     * @return The number of 64-bit words a bitmap over the given number of games needs.
+     */
+    private static int words(int games) {
+        return (games + 63) >>> 6;
+    }
+
+    /**
+     * Sets the first count bits of a bitmap.
+     */
+    private static void fill(long[] bitmap, int count) {
+        for (int w = 0; w < bitmap.length; w++) {
+            int bits = Math.min(64, count - (w << 6));
+            bitmap[w] = (bits == 64) ? -1L : (1L << bits) - 1;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/**
+ * The GLBatchImportTask class imports many CSV files at once on a background thread, for example a week's worth of
+ * Steam, GOG, PSDLE, Nintendo, and itch.io exports.
+ *
+ * Each file is tagged with its own platform, which also decides how many trailer rows are cut from it, so the caller
+ * passes the platforms the user chose or confirmed (see guessPlatform for a first guess). The files are parsed
+ * concurrently, one virtual thread per file, with at most MAX_CONCURRENT_FILES being read at the same time. Each file
+ * is read by GLParallelImporter, so a single large export still uses every core. Once every file is done, the results
+ * are merged in file order into a single list, so the UI only has to refresh once for the whole batch.
+ *
+ * Key functionalities include:
+ * - Reporting progress as the number of files finished out of the number of files selected.
+ * - Stopping every file's import when cancelled.
+ * - Optionally re-importing incrementally through an ImportLedger (see useLedger), so unchanged files are skipped and
+ *   changed files only yield their new and changed rows. The caller finishes the files' ledger sessions (see
+ *   getLedgerSessions) once their games are in the library.
+ *
+ * Example of how this class works:
+ *     GLBatchImportTask task = new GLBatchImportTask(files, List.of("Steam", "GOG"));
+ *     task.setOnSucceeded(event -> GUIDriver.populateGameList(task.getValue()));
+ *     new Thread(task).start();
+ *
+ * Note: The value of the task is the merged list of every game read. Adding them to the library, and catching games
+ * that are already in it, is left to the caller (see LibraryIndex), which must do it on the JavaFX Application Thread.
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import javafx.concurrent.Task;
+
+public class GLBatchImportTask extends Task<List<Game>> {
+    // Files read at the same time. Parsing is CPU bound, so more files than cores would only compete for them.
+    private static final int MAX_CONCURRENT_FILES = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    // File name hints for each platform, checked in order against the words of the lower-cased file name
+    private static final String[][] PLATFORM_HINTS = {
+        {"GameLoom Library", "gameloom"},
+        {"Steam", "steam"},
+        {"GOG", "gog"},
+        {"Itch.io", "itch"},
+        {"Playstation", "psdle", "playstation", "ps3", "ps4", "ps5", "psn"},
+        {"Xbox", "xbox"},
+        {"Nintendo", "nintendo"}
+    };
+
+    private final List<File> files;
+    private final List<String> platforms; // Platform of each file, in the same order as files
+    private final ImportReport report = new ImportReport(); // Shared by every file of the batch
+    private final ImportLedger.Session[] sessions; // Ledger session of each changed file read to the end, in file order
+    private final AtomicInteger unchangedFiles = new AtomicInteger();
+    private ImportLedger ledger; // Set for incremental imports
+    private Set<Long> libraryIds; // Games in the library when the import started, for incremental imports
+
+
+    /**
+     * Creates a task that imports the given files.
+     *
+     * @param files The CSV files to import.
+     * @param platforms The platform of each file, in the same order as the files.
+     */
+    public GLBatchImportTask(List<File> files, List<String> platforms) {
+        if (platforms.size() != files.size()) {
+            throw new IllegalArgumentException("Expected " + files.size() + " platforms, got " + platforms.size());
+        }
+        this.files = new ArrayList<>(files);
+        this.platforms = new ArrayList<>(platforms);
+        this.sessions = new ImportLedger.Session[files.size()];
+    }
+
+
+    /**
+     * Guesses the platform of an export from the words of its file name, e.g. "steam_library_2024.csv" is a Steam
+     * export. Only whole words count, so "hotdoggog.csv" or "switchback.csv" match nothing. The guess is only a
+     * suggestion for the user to confirm, since a wrong platform cuts the wrong number of trailer rows.
+     *
+     * @param fileName The name of the file.
+     * @return The platform of the file, or null if no word of the name gives it away.
+     */
+    public static String guessPlatform(String fileName) {
+        List<String> words = Arrays.asList(fileName.toLowerCase().split("[^a-z0-9]+"));
+        for (String[] hints : PLATFORM_HINTS) {
+            for (int i = 1; i < hints.length; i++) {
+                if (words.contains(hints[i])) {
+                    return hints[0];
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The platform each file will be imported as, in the same order as the files.
+     */
+    public List<String> getPlatforms() {
+        return platforms;
+    }
+
+
+    /**
+     * Makes this an incremental re-import: files whose source hasn't changed according to the ledger are skipped,
+     * and of the other files only rows the ledger hasn't seen are returned. Must be called before the task is started.
+     *
+     * @param ledger The ledger to compare the files against and to record them in.
+     * @param libraryIds The ids of the games in the library (see LibraryIndex.ids).
+     */
+    public void useLedger(ImportLedger ledger, Set<Long> libraryIds) {
+        this.ledger = ledger;
+        this.libraryIds = libraryIds;
+    }
+
+    /**
+     * Returns the ledger sessions of the changed files of an incremental import. The caller finishes them (see
+     * ImportLedger.Session.finish) once the task succeeded and the games are in the library.
+     *
+     * @return The sessions of the files that were read to the end, in file order. Complete once the task succeeds.
+     */
+    public List<ImportLedger.Session> getLedgerSessions() {
+        List<ImportLedger.Session> read = new ArrayList<>();
+        for (ImportLedger.Session session : sessions) {
+            if (session != null) {
+                read.add(session);
+            }
+        }
+        return read;
+    }
+
+    /**
+     * @return For an incremental import, how many files were skipped because they haven't changed.
+     */
+    public int getUnchangedFiles() {
+        return unchangedFiles.get();
+    }
+
+
+    /**
+     * @return The report of the whole batch, such as its throughput and how many non-game rows were left out.
+     *         Complete once the task succeeds, except for the POPULATE stage, which the caller adds.
+     */
+    public ImportReport getReport() {
+        return report;
+    }
+
+
+    /**
+     * Parses every file concurrently, then merges the results.
+     *
+     * @return The games of every file, in file order.
+     * @throws InterruptedException If the task is cancelled while the files are being parsed.
+     * @throws ExecutionException If parsing a file fails unexpectedly.
+     */
+    @Override
+    protected List<Game> call() throws InterruptedException, ExecutionException {
+        updateTitle("Importing " + files.size() + " files"); // Not in the constructor: it would leak a half-built task
+        Semaphore permits = new Semaphore(MAX_CONCURRENT_FILES);
+        AtomicInteger filesDone = new AtomicInteger();
+        updateProgress(0, files.size());
+        updateMessage("0 of " + files.size() + " files");
+
+        List<Future<List<Game>>> results = new ArrayList<>(files.size());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                File file = files.get(i);
+                String platform = platforms.get(i);
+                int index = i;
+                results.add(executor.submit(() -> {
+                    permits.acquire(); // Wait for a free slot before reading the file
+                    try {
+                        return readFile(index, file, platform);
+                    } finally {
+                        permits.release();
+                        int done = filesDone.incrementAndGet();
+                        updateProgress(done, files.size());
+                        updateMessage(done + " of " + files.size() + " files");
+                    }
+                }));
+            }
+
+            // Merge in file order. Duplicates, within the batch or with the library, are caught when the games are added.
+            List<Game> merged = new ArrayList<>();
+            for (Future<List<Game>> result : results) {
+                merged.addAll(result.get());
+            }
+            HeaderCache.getActive().saveIfChanged(); // So the next session doesn't classify these headers again
+            return merged;
+        } finally {
+            executor.shutdownNow(); // Interrupts any file still being read if the task was cancelled
+        }
+    }
+
+    /**
+     * Reads one file of the batch, on its own virtual thread. A file that cannot be read is reported and yields
+     * the games read before the error, like a single import does.
+     *
+     * @param index The position of the file in the batch.
+     * @param file The file to read.
+     * @param platform The platform of the file.
+     * @return The games of the file, in file order.
+     */
+    private List<Game> readFile(int index, File file, String platform) {
+        List<Game> games = new ArrayList<>();
+        try {
+            ImportLedger.Session session = null;
+            if (ledger != null) {
+                String sourceKey = ImportLedger.sourceKey(file, platform);
+                String checksum = ImportLedger.checksum(file.toPath());
+                if (ledger.isUnchanged(sourceKey, checksum, libraryIds)) {
+                    unchangedFiles.incrementAndGet();
+                    return games; // Same file as last time, and its games are all still in the library
+                }
+                session = ledger.begin(sourceKey, checksum, libraryIds);
+            }
+
+            GLParallelImporter.streamGamesFromCSV(file.getPath(), platform, game -> {
+                // Only assign the platform if the file is not a "GameLoom Library" export (an existing library from our program)
+                if (!"GameLoom Library".equals(platform)) {
+                    game.getAttributes().put("platform", platform);
+                }
+                games.add(game);
+            }, report, session, null);
+            if (session != null && !Thread.currentThread().isInterrupted()) { // A cancelled file keeps its last complete import
+                sessions[index] = session; // Published to the caller by the task's completion, after every file is done
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return games;
+    }
+}
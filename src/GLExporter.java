@@ -12,6 +12,7 @@
  * - Writing game attributes as CSV rows, formatted with a standard comma delimiter.
  * - Automatically handling empty attribute values by replacing them with "N/A".
  * - Safeguarding against delimiter conflicts by replacing internal commas with spaces within attribute values.
+ * - Saving each game's id in a last column (Game.ID_KEY), so games keep their ids when the export is imported again.
  * 
  * Example of how this class works:
  *     GLExporter.exportGamesToCSV(games, new File("path/to/exported_file.csv"));
@@ -37,7 +38,7 @@ public class GLExporter{
      * @param file - the CSV file to export the games to
      */
     public static void exportGamesToCSV(List<Game> games, File file){
-        ArrayList<String> attributes = GUIDriver.attributes; //Gets an array list of attributes in Strign format
+        List<String> attributes = SchemaRegistry.getActive().attributes(); //Gets a list of attributes in String format
         ArrayList<String> csvRows = getGameValues(games, attributes); //Gets the games/CSV rows of the library
 
         StringBuilder headers = new StringBuilder(); //Gets the headers of the CSV file based on the game attributes, seperating them with commas
@@ -45,7 +46,7 @@ public class GLExporter{
             headers.append(attribute);
             headers.append(", ");
         }
-        headers = headers.delete(headers.length()-2, headers.length()); //Deletes preceding comma and space
+        headers.append(Game.ID_KEY); //Last column holds the ids of the games
 
         try(PrintWriter writer = new PrintWriter(file)){ //Opens the given file to write to
             writer.println(headers.toString());
@@ -69,13 +70,18 @@ public class GLExporter{
      * @param attributes 
      * @return
      */
-    private static ArrayList<String> getGameValues(List<Game> games, ArrayList<String> attributes){
+    private static ArrayList<String> getGameValues(List<Game> games, List<String> attributes){
         ArrayList<String> csvRows = new ArrayList<>();
 
+        int[] ids = new int[attributes.size()]; //Resolves each column's attribute once instead of once per game
+        for(int i = 0; i < ids.length; i++){
+            ids[i] = AttributeKeys.idOf(attributes.get(i));
+        }
+
         for(Game game : games){
             StringBuilder row = new StringBuilder();
-            for(String attribute : attributes){
-                String value = game.getAttribute(attribute);
+            for(int id : ids){
+                String value = game.getAttribute(id);
 
                 if(value.contains(",")){ //Since commas are the delimineter for CSVs, this just replaces any commas with a space
                     value = value.replace(',', ' ');
@@ -87,7 +93,7 @@ public class GLExporter{
                 row.append(value);
                 row.append(", "); 
             }
-            row = row.delete(row.length()-2, row.length());
+            row.append(game.getId());
             csvRows.add(row.toString());
         }
 
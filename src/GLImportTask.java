@@ -0,0 +1,194 @@
+/**
+ * The GLImportTask class runs a CSV import on a background thread so the JavaFX window stays responsive while a
+ * large file is read.
+ *
+ * Games are streamed from GLParallelImporter, which splits large files across every core (or scans them
+ * memory-mapped when there is only one) and reads small or compressed files with GLImporter. Either way the games
+ * arrive in file order, and they are handed to the JavaFX Application Thread in batches of BATCH_SIZE, so the first
+ * games show up in the library almost immediately and the UI only has to process one Platform.runLater call per batch
+ * instead of one per game.
+ *
+ * Key functionalities include:
+ * - Reporting progress as the bytes of the file handed out so far out of the file size, with a message showing the
+ *   number of games and bytes read.
+ * - Assigning the selected platform to each game on the background thread (except for "GameLoom Library" imports).
+ * - Stopping as soon as possible when cancelled. Batches already handed to the UI are kept.
+ * - Collecting an ImportReport, e.g. how many rows the exclusion rules left out and how long each stage took,
+ *   including the time the UI spends adding each batch.
+ * - Optionally re-importing incrementally through an ImportLedger (see useLedger): an unchanged file is skipped, and
+ *   of a changed file only the new and changed rows are published. Once the games are in the library, the caller
+ *   finishes the ledger session (see getLedgerSession) to learn which games left the file.
+ *
+ * Example of how this class works:
+ *     GLImportTask task = new GLImportTask(file, "Steam", GUIDriver::appendToGameList);
+ *     progressBar.progressProperty().bind(task.progressProperty());
+ *     new Thread(task).start();
+ *
+ * Note: The value of the task is the number of games that were read from the file (for an incremental import, the
+ * number of new or changed rows).
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+public class GLImportTask extends Task<Integer> {
+    private static final int BATCH_SIZE = 250; // Number of games handed to the UI at a time
+
+    private final File file;
+    private final String platform;
+    private final Consumer<List<Game>> publisher; // Receives each batch on the JavaFX Application Thread
+    private final ImportReport report = new ImportReport();
+    private List<Game> batch = new ArrayList<>(BATCH_SIZE);
+    private int gameCount = 0;
+    private long bytesRead = 0; // Bytes of the file handed out so far, only used by the task's thread
+    private ImportLedger ledger; // Set for incremental imports
+    private Set<Long> libraryIds; // Games in the library when the import started, for incremental imports
+    private ImportLedger.Session session; // The ledger session of a changed file
+    private boolean complete = false; // Whether the whole file was read
+    private boolean unchanged = false;
+
+
+    /**
+     * Creates a task that imports the given file.
+     *
+     * @param file The CSV file to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param publisher Called on the JavaFX Application Thread with each batch of imported games, in file order.
+     */
+    public GLImportTask(File file, String platform, Consumer<List<Game>> publisher) {
+        this.file = file;
+        this.platform = platform;
+        this.publisher = publisher;
+    }
+
+
+    /**
+     * Makes this an incremental re-import: the file is skipped if the ledger says its source hasn't changed, and
+     * otherwise only rows the ledger hasn't seen are published. Must be called before the task is started.
+     *
+     * @param ledger The ledger to compare the file against and to record it in.
+     * @param libraryIds The ids of the games in the library (see LibraryIndex.ids).
+     */
+    public void useLedger(ImportLedger ledger, Set<Long> libraryIds) {
+        this.ledger = ledger;
+        this.libraryIds = libraryIds;
+    }
+
+
+    /**
+     * Reads the file on the background thread, publishing games in batches and updating progress as it goes.
+     *
+     * @return The number of games read from the file.
+     * @throws IOException If the file cannot be read.
+     */
+    @Override
+    protected Integer call() throws IOException {
+        updateTitle("Importing " + file.getName()); // Not in the constructor, where it would hand out a half-built task
+        long fileSize = Math.max(file.length(), 1);
+        if (ledger != null) {
+            String sourceKey = ImportLedger.sourceKey(file, platform);
+            String checksum = ImportLedger.checksum(file.toPath());
+            if (ledger.isUnchanged(sourceKey, checksum, libraryIds)) {
+                unchanged = true; // Same file as last time, and its games are all still in the library
+                updateProgress(fileSize, fileSize);
+                updateMessage("No changes since the last import");
+                return 0;
+            }
+            session = ledger.begin(sourceKey, checksum, libraryIds);
+        }
+
+        GLParallelImporter.streamGamesFromCSV(file.getPath(), platform, game -> {
+            if (isCancelled()) {
+                return; // Anything still being parsed after a cancel is dropped
+            }
+            // Only assign the platform if the selected option is not "GameLoom Library" (import an existing library from our program)
+            if (!"GameLoom Library".equals(platform)) {
+                game.getAttributes().put("platform", platform);
+            }
+            batch.add(game);
+            gameCount++;
+            if (batch.size() == BATCH_SIZE) {
+                publish();
+                updateProgress(bytesRead, fileSize);
+                updateMessage(progressMessage(bytesRead));
+            }
+        }, report, session, bytes -> bytesRead = bytes);
+        if (isCancelled()) {
+            return gameCount; // The ledger keeps the last complete import
+        }
+        publish(); // Whatever is left over after the last full batch
+        updateProgress(fileSize, fileSize);
+        updateMessage(progressMessage(bytesRead));
+        HeaderCache.getActive().saveIfChanged(); // So the next session doesn't classify these headers again
+        complete = true;
+        return gameCount;
+    }
+
+    /**
+     * @return The report of the import, such as its throughput and how many non-game rows were left out.
+     *         Complete once the task succeeds.
+     */
+    public ImportReport getReport() {
+        return report;
+    }
+
+    /**
+     * @return true if an incremental import skipped the file because it hasn't changed since the last import.
+     */
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
+    /**
+     * Returns the ledger session of an incremental import of a changed file, once the whole file was read. The caller
+     * finishes it (see ImportLedger.Session.finish) after the task succeeded, when every batch is in the library.
+     *
+     * @return The session, or null if the import isn't incremental, the file was unchanged, or the task didn't succeed.
+     */
+    public ImportLedger.Session getLedgerSession() {
+        return complete ? session : null;
+    }
+
+    /**
+     * @return For an incremental import, how many rows were skipped because they haven't changed.
+     */
+    public int getUnchangedRows() {
+        return (session == null) ? 0 : session.getUnchangedRows();
+    }
+
+    /**
+     * Hands the current batch to the JavaFX Application Thread and starts a new one.
+     */
+    private void publish() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Game> ready = batch;
+        batch = new ArrayList<>(BATCH_SIZE);
+        Platform.runLater(() -> {
+            long start = System.nanoTime();
+            publisher.accept(ready);
+            report.addStageTime(ImportReport.Stage.POPULATE, System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * Builds the progress text shown under the progress bar, e.g. "12,500 games, 30 skipped (3.2 MB)".
+     */
+    private String progressMessage(long bytesRead) {
+        if (session != null) {
+            return String.format("%,d changed, %,d unchanged, %,d skipped (%.1f MB)", gameCount, session.getUnchangedRows(), report.getRowsRejected(), bytesRead / (1024.0 * 1024.0));
+        }
+        return String.format("%,d games, %,d skipped (%.1f MB)", gameCount, report.getRowsRejected(), bytesRead / (1024.0 * 1024.0));
+    }
+
+}
@@ -9,7 +9,11 @@
  * Key functionalities include:
  * - Dynamically detecting the delimiter used in the CSV file (supports comma, semicolon, and tab).
  * - Storing game attributes as a LinkedHashMap and returning a list of Game objects.
- * - Handling rows where values may contain commas, semicolons, or tabs within the data without quotes.
+ * - Streaming games row by row to a consumer, holding back only the platform's trailer rows.
+ * - Reading gzip and zip compressed exports directly, without extracting them to disk first.
+ * - Letting a RowFilter skip rows before they are normalized, e.g. rows an ImportLedger has already seen.
+ * - Filling in an ImportReport with throughput, per-stage timings, and row counts for every import.
+ * - Handling quoted values that contain commas, semicolons, tabs, doubled quotes, or line breaks (RFC 4180, via CSVTokenizer).
  * - Supporting flexible CSV imports from various sources while maintaining data integrity.
  * 
  * Example of how this class works:
@@ -18,116 +22,400 @@
  *         System.out.println(game.getAttribute("platform"));  Prints platform for each game
  *     }
  * 
- * Note: The method customSplitWithoutQuotes provides custom logic for handling rows with values containing delimiters, 
- * ensuring robust import processing for non-quoted values.
+ * Note: Rows are split by CSVTokenizer, which reads fields into a reused buffer instead of creating a String per piece of the row.
  * 
  * @author GameLoom Team
  * @version 1.0
  */
 
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 public class GLImporter {
 
     /**
      * Imports games from a CSV file and returns a list of Game objects. The method automatically 
-     * detects the delimiter used in the file (comma, semicolon, or tab) and handles rows where 
-     * values may contain delimiters but are not enclosed in quotes (particularly useful with commas).
+     * detects the delimiter used in the file (comma, semicolon, or tab) and handles quoted values 
+     * that contain delimiters, escaped quotes, or line breaks.
+     * 
+     * This is a convenience wrapper around streamGamesFromCSV that collects every streamed game into a list.
      * 
      * @param csvFilePath The file path of the CSV to import.
      * @param platform The platform selected (e.g., "Nintendo").
      * @return A List of Game objects populated from the CSV file.
      */
     public static List<Game> importGamesFromCSV(String csvFilePath, String platform) {
-
         List<Game> games = new ArrayList<>(); // List to store Game objects
+        streamGamesFromCSV(csvFilePath, platform, games::add);
+        return games;
+    }
+
+    /**
+     * Streams games from a CSV file, handing each Game to the given consumer as soon as its row is parsed.
+     * Records are split with CSVTokenizer, so quoted values may contain delimiters, doubled quotes, and line breaks.
+     * 
+     * Only the header and a small lookahead ring buffer are kept in memory, so memory use stays flat no matter
+     * how large the file is. The ring buffer is sized by the platform's trailer rule (see trailerRowCount), which
+     * holds back just enough rows to drop the exporter's trailing summary rows once the end of the file is reached.
+     * 
+     * @param csvFilePath The file path of the CSV to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param sink Receives each Game in file order.
+     * @return The report of the import, e.g. how long each stage took.
+     */
+    public static ImportReport streamGamesFromCSV(String csvFilePath, String platform, Consumer<Game> sink) {
+        return streamGamesFromCSV(csvFilePath, platform, sink, new ImportReport());
+    }
+
+    /**
+     * Streams games from a CSV file like streamGamesFromCSV(csvFilePath, platform, sink), recording the import's
+     * statistics in the given report.
+     * 
+     * @param csvFilePath The file path of the CSV to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param sink Receives each Game in file order.
+     * @param report Receives the statistics of the import, such as the rows left out by the exclusion rules.
+     * @return The given report.
+     */
+    public static ImportReport streamGamesFromCSV(String csvFilePath, String platform, Consumer<Game> sink, ImportReport report) {
+        try {
+            streamGamesFromCSV(csvFilePath, platform, sink, report, null, null);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return report;
+    }
+
+    /**
+     * Streams games from a CSV file like streamGamesFromCSV(csvFilePath, platform, sink, report), only building the
+     * rows the given filter accepts and reporting how far into the file the import is.
+     * 
+     * @param csvFilePath The file path of the CSV to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param sink Receives each Game in file order.
+     * @param report Receives the statistics of the import, such as the rows left out by the exclusion rules.
+     * @param filter Decides which rows to build, or null to build every row.
+     * @param progress Receives the number of bytes of the file read so far, or null.
+     * @return The given report.
+     * @throws IOException If the file cannot be read or decompressed.
+     */
+    public static ImportReport streamGamesFromCSV(String csvFilePath, String platform, Consumer<Game> sink, ImportReport report, RowFilter filter, LongConsumer progress) throws IOException {
         Path pathToFile = Paths.get(csvFilePath); // Converts file path to a Path object
 
-        try (BufferedReader br = Files.newBufferedReader(pathToFile, StandardCharsets.UTF_8)) { // Read the file using UTF-8 encoding
-            String line;
-            String[] headers = null; // Array to store headers (first row)
-            String delimiter = null; // Variable to hold the determined delimiter
-            boolean isFirstLine = true; // Track if we are reading the first line (headers)
-            List<String> lines = new ArrayList<>(); // Temporarily store all rows
-
-            // Reads the CSV file line by line
-            while ((line = br.readLine()) != null) {
-                // If it's the first line (headers), determine the delimiter and split the headers
-                if (isFirstLine) {
-                    delimiter = detectDelimiter(line); // Determine delimiter based on the header line
-                    headers = line.split(delimiter); // Split headers using detected delimiter
-
-                    // Clean headers by trimming spaces and removing BOM (Byte Order Mark) if present
-                    for (int i = 0; i < headers.length; i++) {
-                        headers[i] = headers[i].trim().toLowerCase();
-                    }
+        try (InputStream in = Files.newInputStream(pathToFile)) {
+            streamGamesFromCSV((progress == null) ? in : new ProgressInputStream(in, progress), platform, sink, report, filter);
+        }
+        return report;
+    }
 
-                    // Remove BOM (Byte Order Mark) if present in the first header
-                    if (headers[0].startsWith("\uFEFF")) {
-                        headers[0] = headers[0].substring(1);
-                    }
+    /**
+     * Streams games from CSV text read from the given stream, handing each Game to the consumer as soon as its row is parsed.
+     * This lets callers wrap the file in their own stream, for example to count the bytes read for a progress bar.
+     * 
+     * Compressed exports are read without extracting them first: gzip data is decompressed as it is parsed, and
+     * every CSV entry of a zip archive is imported in turn, each with its own header row. The format is recognized
+     * by the stream's first bytes, not by a file name.
+     * 
+     * The import stops early, without an error, if the current thread is interrupted.
+     * 
+     * @param in The UTF-8 encoded CSV text, or a gzip or zip archive of it. Plain streams are not closed;
+     *           compressed ones are closed once they have been read.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param sink Receives each Game in file order.
+     * @param report Receives the statistics of the import, such as the rows left out by the exclusion rules.
+     * @return The given report.
+     * @throws IOException If the stream cannot be read or decompressed.
+     */
+    public static ImportReport streamGamesFromCSV(InputStream in, String platform, Consumer<Game> sink, ImportReport report) throws IOException {
+        return streamGamesFromCSV(in, platform, sink, report, null);
+    }
 
-                    isFirstLine = false; // Move to data rows
-                    continue;
-                }
+    /**
+     * Streams games from CSV text like streamGamesFromCSV(in, platform, sink, report), but only builds a Game for
+     * the rows the given filter accepts. Rejected rows are never normalized, so skipping them costs a single look at
+     * their values. Trailer rows are dropped before the filter sees them.
+     * 
+     * @param in The UTF-8 encoded CSV text, or a gzip or zip archive of it.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param sink Receives the Game of each accepted row in file order.
+     * @param report Receives the statistics of the import, such as the rows left out by the exclusion rules.
+     * @param filter Decides which rows to build, or null to build every row.
+     * @return The given report.
+     * @throws IOException If the stream cannot be read or decompressed.
+     */
+    public static ImportReport streamGamesFromCSV(InputStream in, String platform, Consumer<Game> sink, ImportReport report, RowFilter filter) throws IOException {
+        report.start();
+        MeteredInputStream raw = new MeteredInputStream(in); // Counts the bytes of the file itself, before decompression
+        try {
+            InputStream input = new BufferedInputStream(raw, 1 << 16);
+            byte[] magic = peek(input, 4);
 
-                lines.add(line); // Add the line to the temporary list
+            if (isGzip(magic)) {
+                try (GZIPInputStream gzip = new GZIPInputStream(input, 1 << 16)) {
+                    streamPlainCSV(gzip, platform, sink, report, filter);
+                }
+            } else if (isZip(magic)) {
+                try (ZipInputStream zip = new ZipInputStream(input)) {
+                    ZipEntry entry;
+                    while ((entry = zip.getNextEntry()) != null && !Thread.currentThread().isInterrupted()) {
+                        if (!entry.isDirectory() && isCSVName(entry.getName())) {
+                            streamPlainCSV(zip, platform, sink, report, filter); // Reads until the end of this entry
+                        }
+                    }
+                }
+            } else {
+                streamPlainCSV(input, platform, sink, report, filter);
             }
+        } finally {
+            report.addBytesRead(raw.bytes);
+            report.finish();
+        }
+        return report;
+    }
 
-            // Adjust the number of rows to process if the platform is "Nintendo"
-            int rowsToProcess = lines.size();
-            if ("Nintendo".equalsIgnoreCase(platform)) {
-                rowsToProcess = Math.max(0, rowsToProcess - 5); // Ignore the last 5 rows - NIntendo exporter appends 3 blank lines and then 2 rows showing total # games, and cost, etc.
-            } else if ("Playstation".equalsIgnoreCase(platform)) {
-                rowsToProcess = Math.max(0, rowsToProcess - 1); // Ignore the last 1 row for Playstation - PSDLE appends the internal Sony database names at the end
-            }
+    /**
+     * Checks whether a file holds gzip or zip data, going by its first bytes.
+     * The memory-mapped and parallel importers use this to hand compressed files over to the streaming importer.
+     * 
+     * @param path The file to check.
+     * @return true if the file is gzip or zip compressed.
+     * @throws IOException If the file cannot be read.
+     */
+    protected static boolean isCompressed(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] magic = in.readNBytes(4);
+            return isGzip(magic) || isZip(magic);
+        }
+    }
 
-            // Process the appropriate rows
-            for (int i = 0; i < rowsToProcess; i++) {
-                String[] values;
-                if ("\t".equals(delimiter) || ",".equals(delimiter) || ";".equals(delimiter)) {
-                    values = customSplitWithoutQuotes(lines.get(i), delimiter); // Custom splitting for multiple delimiters
-                } else {
-                    values = lines.get(i).split(delimiter); // Use normal splitting for other delimiters
-                }
+    /**
+     * Reads the first bytes of a stream without consuming them. The stream must support mark and reset.
+     */
+    private static byte[] peek(InputStream in, int count) throws IOException {
+        in.mark(count);
+        byte[] bytes = in.readNBytes(count);
+        in.reset();
+        return bytes;
+    }
 
-                // Create a LinkedHashMap to store key-value pairs (header-value)
-                Map<String, String> attributes = new LinkedHashMap<>();
-                for (int j = 0; j < values.length; j++) {
-                    if (j < headers.length) {
-                        attributes.put(headers[j], values[j].trim()); // Trim values and associate them with headers
-                    }
+    /**
+     * @return true if the bytes start with the gzip magic number (1F 8B).
+     */
+    private static boolean isGzip(byte[] magic) {
+        return magic.length >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B;
+    }
+
+    /**
+     * @return true if the bytes start with a zip local file header ("PK" 03 04).
+     */
+    private static boolean isZip(byte[] magic) {
+        return magic.length >= 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4;
+    }
+
+    /**
+     * @return true if a zip entry's name looks like a CSV export (.csv or .tsv, in any case).
+     */
+    private static boolean isCSVName(String name) {
+        String lowerName = name.toLowerCase();
+        return lowerName.endsWith(".csv") || lowerName.endsWith(".tsv");
+    }
+
+    /**
+     * Streams games from uncompressed CSV text. See streamGamesFromCSV(InputStream, String, Consumer, ImportReport, RowFilter).
+     */
+    private static void streamPlainCSV(InputStream in, String platform, Consumer<Game> sink, ImportReport report, RowFilter filter) throws IOException {
+        MeteredInputStream timed = new MeteredInputStream(in); // Times the reads (and decompression) apart from tokenizing
+        BufferedReader br = new BufferedReader(new InputStreamReader(timed, StandardCharsets.UTF_8)); // Read the stream using UTF-8 encoding
+        long tokenizeStart = System.nanoTime();
+        String headerLine = br.readLine(); // The first line holds the headers
+        long tokenizeNanos = System.nanoTime() - tokenizeStart; // Includes the time spent reading, which is taken out at the end
+        if (headerLine == null) {
+            report.addStageTime(ImportReport.Stage.READ, timed.nanos);
+            return; // Empty file, nothing to import
+        }
+        String delimiter = detectDelimiter(headerLine); // Determine delimiter based on the header line
+        String[] headers = parseHeaders(headerLine, delimiter);
+        Normalizer.ColumnPlan plan = Normalizer.compile(headers); // Resolve the headers to normalized attributes once per file
+        CSVTokenizer tokenizer = new CSVTokenizer(br, delimiter.charAt(0)); // Reads the remaining records
+
+        // Ring buffer holding the values of the most recent rows that could still turn out to be trailer rows.
+        // It has one spare slot for the row being read, and the value arrays are reused from row to row.
+        int trailerRows = trailerRowCount(platform);
+        String[][] rows = new String[trailerRows + 1][headers.length];
+        int[] rowLengths = new int[trailerRows + 1];
+        int buffered = 0; // Number of rows currently held back
+        int oldest = 0; // Slot of the oldest held-back row
+
+        // Reads the CSV file record by record
+        try {
+            while (true) {
+                tokenizeStart = System.nanoTime();
+                if (!tokenizer.nextRecord()) {
+                    tokenizeNanos += System.nanoTime() - tokenizeStart; // Reaching the end of the file
+                    break;
+                }
+                if (Thread.currentThread().isInterrupted()) { // The import was cancelled
+                    return;
                 }
-                // Normalize attributes before checking for popular app
-                attributes = Normalizer.normalize(attributes);
-                // Check if the game name is in the popular apps list; skip if it is
-                String gameName = attributes.get("title");
-                if (gameName != null && Arrays.asList(Normalizer.popularApps).contains(gameName)) {
-                    continue; // Skip this entry if it matches a popular app
+                int slot = (oldest + buffered) % rows.length;
+                String[] values = rows[slot];
+                int count = Math.min(tokenizer.fieldCount(), headers.length); // Values past the last header are never used
+                for (int j = 0; j < count; j++) {
+                    values[j] = tokenizer.trimmedField(j);
                 }
+                rowLengths[slot] = count;
+                tokenizeNanos += System.nanoTime() - tokenizeStart;
+                report.countRow();
 
-                // Ensure ALL game names are enclosed in quotes
-                if (gameName != null) {
-                    if (!gameName.startsWith("\"") && !gameName.endsWith("\"")) {
-                        gameName = "\"" + gameName + "\"";
-                        attributes.put("title", gameName); // Update the attributes map with the quoted value
+                if (buffered < trailerRows) { // Still filling the lookahead, nothing can be emitted yet
+                    buffered++;
+                    continue;
+                }
+                // Release the oldest row (the one just read if there is no trailer), which can no longer be a trailer row
+                int ready = oldest;
+                oldest = (oldest + 1) % rows.length;
+                long key = 0;
+                if (filter != null) {
+                    key = filter.key(headers, rows[ready], rowLengths[ready]);
+                    if (!filter.accept(key)) {
+                        filter.skipped(key); // The filter doesn't need a Game for this row
+                        continue;
                     }
                 }
+                Game game = buildGame(plan, rows[ready], rowLengths[ready], report::countRejection, report);
+                if (game != null) {
+                    report.countGame();
+                    if (filter != null) {
+                        filter.built(key, game);
+                    }
+                    sink.accept(game);
+                }
+            }
+            // Whatever is left in the ring buffer are the trailer rows, which are dropped
+            report.countTrailerRows(buffered);
+        } finally {
+            report.addStageTime(ImportReport.Stage.READ, timed.nanos);
+            report.addStageTime(ImportReport.Stage.TOKENIZE, Math.max(0, tokenizeNanos - timed.nanos));
+        }
+    }
+
+    /**
+     * Returns how many rows at the end of an export are not games for the given platform.
+     * 
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @return The number of trailing rows to ignore.
+     */
+    protected static int trailerRowCount(String platform) {
+        if ("Nintendo".equalsIgnoreCase(platform)) {
+            return 5; // Ignore the last 5 rows - NIntendo exporter appends 3 blank lines and then 2 rows showing total # games, and cost, etc.
+        } else if ("Playstation".equalsIgnoreCase(platform)) {
+            return 1; // Ignore the last 1 row for Playstation - PSDLE appends the internal Sony database names at the end
+        }
+        return 0;
+    }
+
+    /**
+     * Splits the header row and cleans each header by trimming spaces, lowercasing, and removing the BOM (Byte Order Mark).
+     * Quoted headers are unquoted the same way as values.
+     * 
+     * @param headerLine The first line of the CSV (headers).
+     * @param delimiter The detected delimiter.
+     * @return The cleaned headers.
+     */
+    protected static String[] parseHeaders(String headerLine, String delimiter) throws IOException {
+        String[] headers = new CSVTokenizer(headerLine, delimiter.charAt(0)).nextRecordFields(); // Split headers using detected delimiter
+        if (headers == null) {
+            headers = new String[] { "" }; // Blank header line
+        }
+        int count = headers.length;
+        while (count > 1 && headers[count - 1].trim().isEmpty()) {
+            count--; // Drop trailing empty headers left by trailing delimiters
+        }
+        headers = Arrays.copyOf(headers, count);
+
+        // Clean headers by trimming spaces and removing BOM (Byte Order Mark) if present
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = headers[i].trim().toLowerCase();
+        }
+
+        // Remove BOM (Byte Order Mark) if present in the first header
+        if (headers[0].startsWith("\uFEFF")) {
+            headers[0] = headers[0].substring(1);
+        }
+        return headers;
+    }
+
+    /**
+     * Turns the split values of a single data row into a Game, normalizing its attributes and quoting its title.
+     * Shared by every import path once a row has been split into values.
+     * 
+     * @param plan The file's headers compiled by Normalizer.compile.
+     * @param values The values of the row, in column order. They are trimmed in place.
+     * @param valueCount How many entries of values belong to this row (at most one per header).
+     * @param onRejected Receives the exclusion rule that matched, if the row is left out.
+     * @return The Game for the row, or null if the row matches an exclusion rule.
+     */
+    protected static Game buildGame(Normalizer.ColumnPlan plan, String[] values, int valueCount, Consumer<String> onRejected) {
+        return buildGame(plan, values, valueCount, onRejected, null);
+    }
+
+    /**
+     * Builds the Game for one row like buildGame(plan, values, valueCount, onRejected), adding the time spent
+     * normalizing and filtering the row to the given report.
+     *
+     * @param plan The column plan compiled from the file's headers.
+     * @param values The values of the row, in column order. They are trimmed in place.
+     * @param valueCount How many entries of values belong to this row (at most one per header).
+     * @param onRejected Receives the exclusion rule that matched, if the row is left out.
+     * @param timings Receives the NORMALIZE and FILTER stage times, or null to not time the row.
+     * @return The Game for the row, or null if the row matches an exclusion rule.
+     */
+    protected static Game buildGame(Normalizer.ColumnPlan plan, String[] values, int valueCount, Consumer<String> onRejected, ImportReport timings) {
+        long normalizeStart = (timings == null) ? 0 : System.nanoTime();
+        for (int j = 0; j < valueCount; j++) {
+            values[j] = values[j].trim(); // Trim values (returns the same String when there is nothing to trim)
+        }
+        // Normalize attributes before checking for popular app, straight from the row's values
+        long[] languages = new long[1];
+        Map<String, String> attributes = plan.apply(values, valueCount, languages);
+        long filterStart = (timings == null) ? 0 : System.nanoTime();
+        // Check if the game name matches an exclusion rule (popular apps, DLC, ...); skip if it does
+        String gameName = attributes.get("title");
+        String rule = ExclusionRules.getActive().match(gameName);
+        if (timings != null) {
+            timings.addStageTime(ImportReport.Stage.NORMALIZE, filterStart - normalizeStart);
+            timings.addStageTime(ImportReport.Stage.FILTER, System.nanoTime() - filterStart);
+        }
+        if (rule != null) {
+            onRejected.accept(rule);
+            return null; // Skip this entry, it isn't a game
+        }
 
-                // Add the game to the library
-                Game game = new Game(attributes);
-                games.add(game);
+        // Ensure ALL game names are enclosed in quotes
+        if (gameName != null) {
+            if (!gameName.startsWith("\"") && !gameName.endsWith("\"")) {
+                gameName = "\"" + gameName + "\"";
+                attributes.put("title", gameName); // Update the attributes map with the quoted value
             }
-        } catch (Exception e) {
-            e.printStackTrace();
         }
-        return games;
+
+        long id = Game.parseId(attributes.remove(Game.ID_KEY)); // Exports of the library save each game's id
+        return new Game(attributes, languages[0], id);
     }
 
     /**
@@ -140,7 +428,7 @@ public class GLImporter {
      * @param headerLine The first line of the CSV (headers).
      * @return The detected delimiter (comma, semicolon, or tab).
      */
-    private static String detectDelimiter(String headerLine) {
+    protected static String detectDelimiter(String headerLine) {
         String[] potentialDelimiters = { ",", ";", "\t" }; // Handles common delimiters: comma, semi-colon, tab
         String chosenDelimiter = ","; // Default to comma
         int maxColumns = 0;
@@ -156,37 +444,122 @@ public class GLImporter {
         return chosenDelimiter; // Return the detected delimiter
     }
 
+
     /**
-     * Custom logic to split lines that contain delimiters (comma, tab, semicolon) in values, 
-     * where the values are **not** enclosed in quotes.
-     * This method ensures that values with delimiters inside them are handled properly.
-     * 
-     * If a line contains values with commas, tabs, or semicolons but the values are not quoted, 
-     * this method will split the line while preserving the integrity of such values.
-     * 
-     * @param s The line from the CSV file.
-     * @param delimiter The delimiter to use (comma, tab, semicolon).
-     * @return An array of values split by the delimiter.
+     * An InputStream that counts the bytes read through it and the time spent waiting for them,
+     * used to fill in the import report. Only read by the thread that reads the stream.
+     */
+    private static class MeteredInputStream extends FilterInputStream {
+        private long bytes = 0;
+        private long nanos = 0;
+
+        MeteredInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int b = super.read();
+            nanos += System.nanoTime() - start;
+            if (b >= 0) {
+                bytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            int read = super.read(buffer, offset, length);
+            nanos += System.nanoTime() - start;
+            if (read > 0) {
+                bytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false; // Re-reading after a reset would count the same bytes twice
+        }
+    }
+
+
+    /**
+     * An InputStream that passes the number of bytes read through it so far to a progress consumer.
      */
-    public static String[] customSplitWithoutQuotes(String s, String delimiter) {
-        ArrayList<String> words = new ArrayList<>();
-        boolean insideValue = false; // Track whether we are inside a quoted value
-        int start = 0;
+    private static class ProgressInputStream extends FilterInputStream {
+        private final LongConsumer progress;
+        private long bytes = 0;
 
-        // Iterate through the line character by character
-        for (int i = 0; i < s.length(); i++) {
-            // When encountering a delimiter, split the string only if we are not inside a quoted value
-            if (s.startsWith(delimiter, i) && !insideValue) {
-                words.add(s.substring(start, i).trim()); // Add the value up to the delimiter
-                start = i + delimiter.length(); // Move start index to after the delimiter
-                i += delimiter.length() - 1; // Adjust loop index to skip over the delimiter
+        ProgressInputStream(InputStream in, LongConsumer progress) {
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                progress.accept(++bytes);
             }
-            // Track if inside quotes (in case of quoted values in users file)
-            else if (s.charAt(i) == '"') { // and our export file will have quotes if they needed to be appended on import)
-                insideValue = !insideValue; // Toggle inside-quote status
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                bytes += read;
+                progress.accept(bytes);
             }
+            return read;
         }
-        words.add(s.substring(start).trim()); // Add the last segment
-        return words.toArray(new String[0]); // Convert ArrayList to array
+
+        @Override
+        public boolean markSupported() {
+            return false; // Re-reading after a reset would count the same bytes twice
+        }
+    }
+
+
+    /**
+     * Decides which rows of a CSV file are turned into games, looking only at their raw values.
+     *
+     * The decision is split in two so the parallel importers can make it on their parser threads: key and accept only
+     * look at the row and must not change any state, since they may be called from several threads at once (and for
+     * rows that later turn out to be trailer rows). skipped and built are then called in file order on the importing
+     * thread, once for every row that is not a trailer row and not left out by the exclusion rules.
+     */
+    public interface RowFilter {
+        /**
+         * @param headers The header row of the file the row belongs to. The same array for every row of a file.
+         * @param values The row's values, in column order. Must not be modified.
+         * @param valueCount How many entries of values belong to this row.
+         * @return A key standing for the row's values, handed back to the other methods.
+         */
+        long key(String[] headers, String[] values, int valueCount);
+
+        /**
+         * @param key The row's key.
+         * @return true to build a Game for the row and hand it to the sink, false to skip it.
+         */
+        boolean accept(long key);
+
+        /**
+         * Called for each row that accept turned down.
+         *
+         * @param key The row's key.
+         */
+        void skipped(long key);
+
+        /**
+         * Called with the Game of each row that accept let through, right before the Game is handed to the sink.
+         *
+         * @param key The row's key.
+         * @param game The row's Game.
+         */
+        void built(long key, Game game);
     }
 }
@@ -0,0 +1,388 @@
+/**
+ * The GLMappedImporter class imports CSV files by memory-mapping them and scanning the raw UTF-8 bytes, rather than
+ * reading them through a BufferedReader. It produces the same games as GLImporter.
+ *
+ * Delimiters, quotes, and line breaks are all single ASCII bytes in UTF-8, and so is every whitespace character that
+ * String.trim removes, so rows can be split, trimmed, and unquoted (following the same RFC 4180 rules as CSVTokenizer)
+ * without decoding them first. A String is only created for each trimmed cell that is kept for a Game; line strings, untrimmed cells, cells past the last header, and the
+ * platform's trailer rows are never decoded at all. Held-back trailer rows are tracked by their byte positions.
+ *
+ * Gzip and zip files can't be scanned in place, so they are handed to GLImporter, which decompresses them as it reads.
+ *
+ * Files are mapped in windows (see WINDOW_SIZE) so multi-GB catalogue dumps can be imported without mapping them whole.
+ * A record that runs past the end of a window causes the window to be mapped again, starting at that record.
+ *
+ * The record and cell scanning helpers are shared with GLParallelImporter, which maps each of its byte ranges, and
+ * which hands large files to this class when there is only one core to parse them on.
+ *
+ * Example of how this class works:
+ *     List<Game> importedGames = GLMappedImporter.importGamesFromCSV("path/to/file.csv", "Steam");
+ *
+ * @see GLImporter
+ * @see GLParallelImporter
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+public class GLMappedImporter {
+    private static final long WINDOW_SIZE = 256L << 20; // Map 256 MB of the file at a time
+
+    /**
+     * Imports games from a CSV file by memory-mapping it and returns a list of Game objects.
+     *
+     * @param csvFilePath The file path of the CSV to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @return A List of Game objects populated from the CSV file.
+     */
+    public static List<Game> importGamesFromCSV(String csvFilePath, String platform) {
+        List<Game> games = new ArrayList<>();
+        streamGamesFromCSV(csvFilePath, platform, games::add);
+        return games;
+    }
+
+    /**
+     * Imports games from a CSV file by memory-mapping it, handing each Game to the consumer in file order.
+     *
+     * @param csvFilePath The file path of the CSV to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param sink Receives each Game in file order.
+     */
+    public static void streamGamesFromCSV(String csvFilePath, String platform, Consumer<Game> sink) {
+        streamGamesFromCSV(csvFilePath, platform, sink, new ImportReport());
+    }
+
+    /**
+     * Imports games from a CSV file by memory-mapping it, recording the import's statistics in the given report.
+     *
+     * @param csvFilePath The file path of the CSV to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param sink Receives each Game in file order.
+     * @param report Receives the statistics of the import, such as the rows left out by the exclusion rules.
+     */
+    public static void streamGamesFromCSV(String csvFilePath, String platform, Consumer<Game> sink, ImportReport report) {
+        try {
+            streamGamesFromCSV(csvFilePath, platform, sink, report, null, null);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Imports games from a CSV file by memory-mapping it, only building the rows the given filter accepts and
+     * reporting how far into the file the import is. The import stops early, without an error, if the current
+     * thread is interrupted.
+     *
+     * @param csvFilePath The file path of the CSV to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param sink Receives each Game in file order.
+     * @param report Receives the statistics of the import, such as the rows left out by the exclusion rules.
+     * @param filter Decides which rows to build, or null to build every row (see GLImporter.RowFilter).
+     * @param progress Receives the number of bytes of the file handed out so far, or null.
+     * @throws IOException If the file cannot be read.
+     */
+    public static void streamGamesFromCSV(String csvFilePath, String platform, Consumer<Game> sink, ImportReport report,
+                                          GLImporter.RowFilter filter, LongConsumer progress) throws IOException {
+        if (GLImporter.isCompressed(Paths.get(csvFilePath))) {
+            GLImporter.streamGamesFromCSV(csvFilePath, platform, sink, report, filter, progress); // Compressed bytes can't be scanned in place
+            return;
+        }
+
+        report.start();
+        long position = 0; // File position of the next record
+        try (FileChannel channel = FileChannel.open(Paths.get(csvFilePath), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long base = 0; // File position of the first mapped byte
+            long readStart = System.nanoTime();
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(fileSize, WINDOW_SIZE));
+
+            // The header is the first line, read the same way BufferedReader.readLine would
+            int headerEnd = lineBreak(window, 0, window.limit());
+            while (headerEnd < 0 && window.limit() < fileSize) { // Header longer than the window
+                window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(fileSize, window.limit() * 2L));
+                headerEnd = lineBreak(window, 0, window.limit());
+            }
+            report.addStageTime(ImportReport.Stage.READ, System.nanoTime() - readStart);
+            if (fileSize == 0) {
+                return; // Empty file, nothing to import
+            }
+            if (headerEnd < 0) {
+                headerEnd = window.limit(); // The header is the whole file
+            }
+            String headerLine = decode(window, 0, headerEnd, new byte[headerEnd]);
+            String delimiter = GLImporter.detectDelimiter(headerLine);
+            String[] headers = GLImporter.parseHeaders(headerLine, delimiter);
+            byte delimiterByte = (byte) delimiter.charAt(0);
+
+            // Ring buffer of byte positions for rows that could still turn out to be trailer rows
+            int trailerRows = GLImporter.trailerRowCount(platform);
+            long[] heldStarts = new long[trailerRows];
+            long[] heldEnds = new long[trailerRows];
+            int buffered = 0;
+            int oldest = 0;
+
+            RowParser parser = new RowParser(headers, delimiterByte, report::countRejection, filter, report);
+            position = skipLineBreak(window, headerEnd);
+            while (position < fileSize) {
+                if (Thread.currentThread().isInterrupted()) { // The import was cancelled
+                    return;
+                }
+
+                // Find the end of the record, mapping a new window if the record runs past this one
+                long tokenizeStart = System.nanoTime();
+                int from = (int) (position - base);
+                int end = recordEnd(window, from, window.limit(), delimiterByte);
+                boolean windowReachesEnd = base + window.limit() >= fileSize;
+                if (end < 0 || (end + 1 >= window.limit() && !windowReachesEnd)) {
+                    if (end < 0 && windowReachesEnd) {
+                        end = window.limit(); // The last record has no line break
+                    } else {
+                        // Start the new window at the oldest held-back row so it can still be parsed later
+                        long newBase = (buffered > 0) ? Math.min(position, heldStarts[oldest]) : position;
+                        long length = Math.min(fileSize - newBase, Math.max(WINDOW_SIZE, (base + window.limit() - newBase) * 2));
+                        if (length > Integer.MAX_VALUE) {
+                            throw new IOException("CSV record is too large to map: starts at byte " + position);
+                        }
+                        window = channel.map(FileChannel.MapMode.READ_ONLY, newBase, length);
+                        base = newBase;
+                        continue;
+                    }
+                }
+                long recordStart = position;
+                long recordEnd = base + end;
+                position = base + skipLineBreak(window, end);
+                report.addStageTime(ImportReport.Stage.TOKENIZE, System.nanoTime() - tokenizeStart);
+                report.countRow();
+
+                if (buffered < trailerRows) { // Still filling the lookahead, nothing can be emitted yet
+                    heldStarts[buffered] = recordStart;
+                    heldEnds[buffered] = recordEnd;
+                    buffered++;
+                    continue;
+                }
+                if (trailerRows > 0) { // Swap the new row in and release the oldest one
+                    long readyStart = heldStarts[oldest];
+                    long readyEnd = heldEnds[oldest];
+                    heldStarts[oldest] = recordStart;
+                    heldEnds[oldest] = recordEnd;
+                    oldest = (oldest + 1) % trailerRows;
+                    recordStart = readyStart;
+                    recordEnd = readyEnd;
+                }
+
+                Game game = parser.parse(window, (int) (recordStart - base), (int) (recordEnd - base));
+                if (parser.skipped()) {
+                    filter.skipped(parser.key());
+                } else if (game != null) {
+                    report.countGame();
+                    if (filter != null) {
+                        filter.built(parser.key(), game);
+                    }
+                    sink.accept(game);
+                }
+                if (progress != null) {
+                    progress.accept(position);
+                }
+            }
+            // Whatever is left in the ring buffer are the trailer rows, which are never decoded
+            report.countTrailerRows(buffered);
+        } finally {
+            report.addBytesRead(position);
+            report.finish();
+        }
+    }
+
+    /**
+     * Returns the index of the first line break ('\n' or '\r') at or after from, ignoring quotes, or -1 if there is none before limit.
+     */
+    private static int lineBreak(ByteBuffer buffer, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first line break at or after from that is not inside a quoted value,
+     * or -1 if the record does not end before limit. Quotes follow CSVTokenizer.nextState.
+     *
+     * @param buffer The mapped bytes.
+     * @param from Index of the first byte of the record.
+     * @param limit Index to stop scanning at.
+     * @param delimiter The delimiter byte, which tells where each field starts.
+     * @return The index of the line break that ends the record, or -1.
+     */
+    protected static int recordEnd(ByteBuffer buffer, int from, int limit, byte delimiter) {
+        int state = CSVTokenizer.FIELD_START;
+        for (int i = from; i < limit; i++) {
+            byte b = buffer.get(i);
+            if ((b == '\n' || b == '\r') && state != CSVTokenizer.QUOTED) {
+                return i;
+            }
+            state = CSVTokenizer.nextState(state, b & 0xFF, delimiter);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index just past the line break at the given index, treating "\r\n" as a single line break.
+     */
+    protected static int skipLineBreak(ByteBuffer buffer, int index) {
+        if (index >= buffer.limit()) {
+            return index;
+        }
+        if (buffer.get(index) == '\r' && index + 1 < buffer.limit() && buffer.get(index + 1) == '\n') {
+            return index + 2;
+        }
+        return index + 1;
+    }
+
+    /**
+     * Decodes UTF-8 bytes from the buffer into a String, using scratch as the copy target.
+     */
+    private static String decode(ByteBuffer buffer, int start, int end, byte[] scratch) {
+        buffer.get(start, scratch, 0, end - start);
+        return new String(scratch, 0, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Splits records into trimmed cells straight from their bytes and turns them into Game objects.
+     * A parser keeps its value array and copy buffer between records, so it must only be used by one thread at a time.
+     */
+    protected static class RowParser {
+        private final Normalizer.ColumnPlan plan;
+        private final String[] headers;
+        private final byte delimiter;
+        private final Consumer<String> onRejected; // Receives the exclusion rule of each row that is left out
+        private final GLImporter.RowFilter filter; // Decides which rows are built, or null to build every row
+        private final ImportReport timings; // Receives the TOKENIZE, NORMALIZE, and FILTER stage times, or null
+        private final String[] values; // Reused for every record, one slot per header
+        private byte[] scratch = new byte[256]; // Reused copy buffer for decoding cells
+        private long key; // Filter key of the last record
+        private boolean skipped; // Whether the filter turned the last record down
+
+        /**
+         * @param headers The cleaned headers of the file.
+         * @param delimiter The delimiter byte (comma, semicolon, or tab).
+         * @param onRejected Receives the exclusion rule of each row that is left out.
+         */
+        protected RowParser(String[] headers, byte delimiter, Consumer<String> onRejected) {
+            this(headers, delimiter, onRejected, null, null);
+        }
+
+        /**
+         * @param headers The cleaned headers of the file.
+         * @param delimiter The delimiter byte (comma, semicolon, or tab).
+         * @param onRejected Receives the exclusion rule of each row that is left out.
+         * @param filter Decides which rows are built (only its key and accept methods are called), or null.
+         * @param timings Receives the time spent in each stage, or null to not time the records.
+         */
+        protected RowParser(String[] headers, byte delimiter, Consumer<String> onRejected, GLImporter.RowFilter filter, ImportReport timings) {
+            this.plan = Normalizer.compile(headers); // Resolve the headers to normalized attributes once per parser
+            this.headers = headers;
+            this.delimiter = delimiter;
+            this.onRejected = onRejected;
+            this.filter = filter;
+            this.timings = timings;
+            this.values = new String[headers.length];
+        }
+
+        /**
+         * Turns the record between start (inclusive) and end (exclusive) into a Game.
+         *
+         * @return The Game for the record, or null if it matches an exclusion rule or the filter skipped it.
+         */
+        protected Game parse(ByteBuffer buffer, int start, int end) {
+            long tokenizeStart = (timings == null) ? 0 : System.nanoTime();
+            int count = 0; // Number of cells kept so far
+            int state = CSVTokenizer.FIELD_START;
+            int cellStart = start;
+            for (int i = start; i < end && count < values.length; i++) {
+                byte b = buffer.get(i);
+                if (b == delimiter && state != CSVTokenizer.QUOTED) {
+                    values[count++] = cell(buffer, cellStart, i);
+                    cellStart = i + 1;
+                }
+                state = CSVTokenizer.nextState(state, b & 0xFF, delimiter);
+            }
+            if (count < values.length) {
+                values[count++] = cell(buffer, cellStart, end); // The last cell
+            }
+            if (timings != null) {
+                timings.addStageTime(ImportReport.Stage.TOKENIZE, System.nanoTime() - tokenizeStart);
+            }
+
+            skipped = false;
+            if (filter != null) {
+                key = filter.key(headers, values, count);
+                if (!filter.accept(key)) {
+                    skipped = true;
+                    return null;
+                }
+            }
+            return GLImporter.buildGame(plan, values, count, onRejected, timings);
+        }
+
+        /**
+         * @return The filter key of the last record parsed (0 without a filter).
+         */
+        protected long key() {
+            return key;
+        }
+
+        /**
+         * @return true if the filter turned the last record parsed down, so no Game was built for it.
+         */
+        protected boolean skipped() {
+            return skipped;
+        }
+
+        /**
+         * Trims a cell at the byte level (every character String.trim removes is a single byte below 0x21) and decodes it.
+         * Quoted cells are unquoted following the same rules as CSVTokenizer.unquote.
+         */
+        private String cell(ByteBuffer buffer, int start, int end) {
+            while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+                end--;
+            }
+            if (start == end) {
+                return "";
+            }
+            if (end - start > scratch.length) {
+                scratch = new byte[Math.max(end - start, scratch.length * 2)];
+            }
+            if (buffer.get(start) != '"' || end - start < 2 || buffer.get(end - 1) != '"') {
+                return decode(buffer, start, end, scratch); // Not a quoted cell, keep it as written
+            }
+
+            // Quoted cell: drop the enclosing quotes and turn each doubled quote into a single one
+            int contentEnd = end - 1;
+            int length = 0;
+            for (int i = start + 1; i < contentEnd; i++) {
+                byte b = buffer.get(i);
+                scratch[length++] = b;
+                if (b == '"' && i + 1 < contentEnd && buffer.get(i + 1) == '"') {
+                    i++;
+                }
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,487 @@
+/**
+ * The GLParallelImporter class imports large CSV files using every available core. It produces exactly the
+ * same games, in the same order, as GLImporter, but splits the work of tokenizing and normalizing rows across
+ * the common fork-join pool. Both split records with the same quote rule (see CSVTokenizer.nextState).
+ *
+ * The import happens in two passes over the file:
+ * - **Scan**: The data section of the file (everything after the header row) is cut into byte ranges. Each range
+ *   is scanned in parallel once for every quote state it could start in, noting the state it ends in and its first
+ *   newline that ends a record. Chaining those summaries in order tells us the quote state at the start of every
+ *   range, so each range boundary can be moved forward to the first newline that is not inside a quoted value.
+ * - **Parse**: Each safe range is memory-mapped and split into records and cells straight from its bytes (see
+ *   GLMappedImporter.RowParser), and turned into Game objects in parallel. The results are then handed out in file
+ *   order, so the output is deterministic no matter which range finishes first.
+ *
+ * Small files are not worth splitting and are simply handed to GLImporter.streamGamesFromCSV. So are gzip and zip
+ * files, since compressed data can't be cut into independent byte ranges. With a single core there is nobody to share
+ * the ranges with, so large files are scanned in one pass by GLMappedImporter. The import tasks (GLImportTask and
+ * GLBatchImportTask) read every file through this class, so they always get the engine that suits the file.
+ *
+ * Example of how this class works:
+ *     List<Game> importedGames = GLParallelImporter.importGamesFromCSV("path/to/file.csv", "Steam");
+ *
+ * @see GLImporter
+ * @see GLMappedImporter
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+public class GLParallelImporter {
+    private static final long MIN_PARALLEL_FILE_SIZE = 1L << 20; // Files under 1 MB are imported sequentially
+    private static final long MIN_CHUNK_SIZE = 1L << 20; // Never split ranges smaller than 1 MB
+    private static final long MAX_CHUNK_SIZE = 64L << 20; // Cap ranges at 64 MB so each one fits comfortably in a byte array
+    private static final int CHUNKS_PER_THREAD = 4; // Extra ranges per thread to even out the load between workers
+
+    /**
+     * Imports games from a CSV file in parallel and returns them in file order.
+     *
+     * @param csvFilePath The file path of the CSV to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @return A List of Game objects populated from the CSV file.
+     */
+    public static List<Game> importGamesFromCSV(String csvFilePath, String platform) {
+        List<Game> games = new ArrayList<>();
+        streamGamesFromCSV(csvFilePath, platform, games::add);
+        return games;
+    }
+
+    /**
+     * Imports games from a CSV file in parallel, handing each Game to the consumer in file order.
+     * Games from earlier ranges are handed out as soon as their range is parsed, while later ranges are still working.
+     *
+     * @param csvFilePath The file path of the CSV to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param sink Receives each Game in file order, always on the calling thread.
+     */
+    public static void streamGamesFromCSV(String csvFilePath, String platform, Consumer<Game> sink) {
+        streamGamesFromCSV(csvFilePath, platform, sink, new ImportReport());
+    }
+
+    /**
+     * Imports games from a CSV file in parallel, recording the import's statistics in the given report.
+     * Rejections are counted as results are handed out, so trailer rows are never counted.
+     *
+     * @param csvFilePath The file path of the CSV to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param sink Receives each Game in file order, always on the calling thread.
+     * @param report Receives the statistics of the import, such as the rows left out by the exclusion rules.
+     */
+    public static void streamGamesFromCSV(String csvFilePath, String platform, Consumer<Game> sink, ImportReport report) {
+        try {
+            streamGamesFromCSV(csvFilePath, platform, sink, report, null, null);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Imports games from a CSV file in parallel, only building the rows the given filter accepts and reporting how
+     * far into the file the import is. This is the entry point of the import tasks, so it picks the engine that suits
+     * the file: small or compressed files are read by GLImporter, and with a single core there is nothing to split
+     * the work with, so the file is scanned by GLMappedImporter instead. The import stops early, without an error,
+     * if the current thread is interrupted.
+     *
+     * @param csvFilePath The file path of the CSV to import.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @param sink Receives each Game in file order, always on the calling thread.
+     * @param report Receives the statistics of the import. Stage times are summed over the worker threads.
+     * @param filter Decides which rows to build, or null to build every row (see GLImporter.RowFilter). Its skipped
+     *               and built methods are called on the calling thread.
+     * @param progress Receives the number of bytes of the file handed out so far, on the calling thread, or null.
+     * @throws IOException If the file cannot be read.
+     */
+    public static void streamGamesFromCSV(String csvFilePath, String platform, Consumer<Game> sink, ImportReport report,
+                                          GLImporter.RowFilter filter, LongConsumer progress) throws IOException {
+        Path pathToFile = Paths.get(csvFilePath);
+        if (Files.size(pathToFile) < MIN_PARALLEL_FILE_SIZE || GLImporter.isCompressed(pathToFile)) {
+            GLImporter.streamGamesFromCSV(csvFilePath, platform, sink, report, filter, progress); // Not worth splitting, or can't be split
+            return;
+        }
+        if (ForkJoinPool.getCommonPoolParallelism() < 2) {
+            GLMappedImporter.streamGamesFromCSV(csvFilePath, platform, sink, report, filter, progress); // No other core to share the work with
+            return;
+        }
+
+        report.start();
+        long handedOut = 0; // Bytes of the file whose rows were handed out
+        try (FileChannel channel = FileChannel.open(pathToFile, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            // Read the header row the same way GLImporter does
+            long readStart = System.nanoTime();
+            long dataStart = findHeaderEnd(channel, fileSize);
+            String headerLine = stripLineBreak(new String(readRange(channel, 0, dataStart), StandardCharsets.UTF_8));
+            report.addStageTime(ImportReport.Stage.READ, System.nanoTime() - readStart);
+            String delimiter = GLImporter.detectDelimiter(headerLine);
+            String[] headers = GLImporter.parseHeaders(headerLine, delimiter);
+            byte delimiterByte = (byte) delimiter.charAt(0);
+            handedOut = dataStart;
+
+            long scanStart = System.nanoTime();
+            long[] boundaries = findRecordBoundaries(channel, dataStart, fileSize, delimiterByte);
+            report.addStageTime(ImportReport.Stage.TOKENIZE, System.nanoTime() - scanStart);
+
+            // Normalize the first record up front so attribute names are registered in the same order as a sequential import
+            parseFirstRecord(channel, boundaries[0], boundaries[1], headers, delimiterByte);
+
+            // Parse every range in parallel
+            List<ParseTask> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < boundaries.length; i++) {
+                ParseTask task = new ParseTask(channel, boundaries[i], boundaries[i + 1], headers, delimiterByte, filter, report);
+                task.fork();
+                tasks.add(task);
+            }
+
+            // Hand the results out in file order, holding back the platform's trailer rows
+            int trailerRows = GLImporter.trailerRowCount(platform);
+            ParseTask[] heldTasks = new ParseTask[trailerRows]; // Range and row of each held-back row
+            int[] heldRows = new int[trailerRows];
+            int buffered = 0;
+            int oldest = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                if (Thread.currentThread().isInterrupted()) { // The import was cancelled
+                    for (int j = i; j < tasks.size(); j++) {
+                        tasks.get(j).cancel(true);
+                    }
+                    return;
+                }
+                ParseTask task = tasks.get(i);
+                List<Game> games = task.join(); // Games are null for rows that were left out or skipped
+                for (int row = 0; row < games.size(); row++) {
+                    report.countRow();
+                    if (buffered < trailerRows) {
+                        heldTasks[buffered] = task;
+                        heldRows[buffered] = row;
+                        buffered++;
+                        continue;
+                    }
+                    ParseTask readyTask = task;
+                    int readyRow = row;
+                    if (trailerRows > 0) { // Swap the new row in and release the oldest one
+                        readyTask = heldTasks[oldest];
+                        readyRow = heldRows[oldest];
+                        heldTasks[oldest] = task;
+                        heldRows[oldest] = row;
+                        oldest = (oldest + 1) % trailerRows;
+                    }
+                    if (progress != null) { // Rows of a range are taken to be about the same size
+                        progress.accept(boundaries[i] + (boundaries[i + 1] - boundaries[i]) * row / games.size());
+                    }
+                    readyTask.handOut(readyRow, sink, report, filter);
+                }
+                handedOut = boundaries[i + 1];
+            }
+            // Whatever is left in the ring buffer are the trailer rows, which are dropped
+            report.countTrailerRows(buffered);
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // A range could not be mapped
+        } finally {
+            report.addBytesRead(handedOut);
+            report.finish();
+        }
+    }
+
+    /**
+     * Finds where the data section starts, which is right after the header row's line break.
+     * Like BufferedReader.readLine, the header ends at the first '\n', '\r', or "\r\n".
+     *
+     * @return The file position of the first data byte.
+     */
+    private static long findHeaderEnd(FileChannel channel, long fileSize) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = 0;
+        while (position < fileSize) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    return position + i + 1;
+                }
+                if (b == '\r') { // Skip the '\n' of a "\r\n" pair as well
+                    long next = position + i + 1;
+                    ByteBuffer one = ByteBuffer.allocate(1);
+                    if (next < fileSize && channel.read(one, next) == 1 && one.get(0) == '\n') {
+                        return next + 1;
+                    }
+                    return next;
+                }
+            }
+            position += read;
+        }
+        return fileSize; // The header is the whole file
+    }
+
+    /**
+     * Removes the line break ("\n", "\r", or "\r\n") from the end of a line.
+     */
+    private static String stripLineBreak(String line) {
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\n') {
+            end--;
+        }
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    /**
+     * Splits the data section into byte ranges that each start at the beginning of a record.
+     *
+     * @return The range boundaries, starting with dataStart and ending with fileSize.
+     */
+    private static long[] findRecordBoundaries(FileChannel channel, long dataStart, long fileSize, byte delimiter) {
+        long dataSize = fileSize - dataStart;
+        int threads = ForkJoinPool.getCommonPoolParallelism();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, dataSize / ((long) threads * CHUNKS_PER_THREAD)));
+        int chunkCount = (int) Math.max(1, (dataSize + chunkSize - 1) / chunkSize);
+
+        // Scan every range in parallel
+        List<ScanTask> scans = new ArrayList<>();
+        for (int i = 0; i < chunkCount; i++) {
+            long start = dataStart + i * chunkSize;
+            scans.add(new ScanTask(channel, start, Math.min(fileSize, start + chunkSize), delimiter));
+        }
+        ForkJoinTask.invokeAll(scans);
+
+        // Walk the summaries in order to place each boundary on the first newline outside of quotes
+        long[] boundaries = new long[chunkCount + 1];
+        boundaries[0] = dataStart;
+        boundaries[chunkCount] = fileSize;
+        int stateBefore = CSVTokenizer.FIELD_START; // Quote state at the start of the current range
+        for (int i = 1; i < chunkCount; i++) {
+            stateBefore = scans.get(i - 1).join().endState[stateBefore];
+            long boundary = fileSize;
+            int state = stateBefore;
+            for (int j = i; j < chunkCount; j++) { // If this range has no suitable newline, keep looking in the next one
+                ChunkScan scan = scans.get(j).join();
+                long newline = scan.firstRecordEnd[state];
+                if (newline >= 0) {
+                    boundary = newline + 1;
+                    break;
+                }
+                state = scan.endState[state];
+            }
+            boundaries[i] = Math.max(boundary, boundaries[i - 1]);
+        }
+        return boundaries;
+    }
+
+    /**
+     * Parses the first record of the data section on the calling thread, if there is one.
+     */
+    private static void parseFirstRecord(FileChannel channel, long start, long end, String[] headers, byte delimiter) throws IOException {
+        if (start >= end) {
+            return;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int recordEnd = GLMappedImporter.recordEnd(buffer, 0, buffer.limit(), delimiter);
+        new GLMappedImporter.RowParser(headers, delimiter, rule -> {}).parse(buffer, 0, recordEnd < 0 ? buffer.limit() : recordEnd); // Counted again later
+    }
+
+    /**
+     * Reads the bytes between two file positions.
+     */
+    private static byte[] readRange(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        long position = start;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Summary of a scanned byte range for each quote state it could start in (indexed by the CSVTokenizer state):
+     * the state it ends in, and the position of its first newline that ends a record (-1 if there is none).
+     */
+    private static class ChunkScan {
+        final int[] endState = new int[STATES];
+        final long[] firstRecordEnd = {-1, -1, -1, -1};
+    }
+
+    private static final int STATES = 4; // FIELD_START, UNQUOTED, QUOTED, and CLOSING_QUOTE
+
+    /**
+     * Scans one byte range of the file, following the quote state from each state it could start in.
+     */
+    private static class ScanTask extends RecursiveTask<ChunkScan> {
+        private static final long serialVersionUID = 1L;
+        private final transient FileChannel channel;
+        private final long start;
+        private final long end;
+        private final byte delimiter;
+
+        ScanTask(FileChannel channel, long start, long end, byte delimiter) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.delimiter = delimiter;
+        }
+
+        @Override
+        protected ChunkScan compute() {
+            ChunkScan scan = new ChunkScan();
+            int[] states = {CSVTokenizer.FIELD_START, CSVTokenizer.UNQUOTED, CSVTokenizer.QUOTED, CSVTokenizer.CLOSING_QUOTE};
+            try {
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                int limit = bytes.limit();
+                int i = 0;
+                // Follow every starting state until they agree, which usually happens within the first record
+                for (; i < limit && !allAgree(states); i++) {
+                    byte b = bytes.get(i);
+                    for (int s = 0; s < STATES; s++) {
+                        if (b == '\n' && states[s] != CSVTokenizer.QUOTED && scan.firstRecordEnd[s] < 0) {
+                            scan.firstRecordEnd[s] = start + i;
+                        }
+                        states[s] = CSVTokenizer.nextState(states[s], b & 0xFF, delimiter);
+                    }
+                }
+                if (!allAgree(states)) { // The range ended first
+                    System.arraycopy(states, 0, scan.endState, 0, STATES);
+                    return scan;
+                }
+
+                // From here on a single state stands for all of them
+                int state = states[0];
+                boolean newlinesPending = true; // Whether some starting state has not seen a record end yet
+                for (; i < limit; i++) {
+                    byte b = bytes.get(i);
+                    if (newlinesPending && b == '\n' && state != CSVTokenizer.QUOTED) {
+                        for (int s = 0; s < STATES; s++) {
+                            if (scan.firstRecordEnd[s] < 0) {
+                                scan.firstRecordEnd[s] = start + i;
+                            }
+                        }
+                        newlinesPending = false;
+                    }
+                    state = CSVTokenizer.nextState(state, b & 0xFF, delimiter);
+                }
+                Arrays.fill(scan.endState, state);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return scan;
+        }
+
+        /**
+         * @return true if every starting state has led to the same state.
+         */
+        private static boolean allAgree(int[] states) {
+            return states[0] == states[1] && states[1] == states[2] && states[2] == states[3];
+        }
+    }
+
+    /**
+     * Maps one range of whole records and turns each record into a Game.
+     * The result holds one entry per record, with null for rows that were left out or skipped by the filter.
+     * The exclusion rule that left out each row is kept in rejections, and the filter's verdict in keys and skippedRows.
+     */
+    private static class ParseTask extends RecursiveTask<List<Game>> {
+        private static final long serialVersionUID = 1L;
+        private final transient List<String> rejections = new ArrayList<>(); // Filled by compute, read after join
+        private transient long[] keys = new long[0]; // Filter key of each row, when there is a filter
+        private final transient BitSet skippedRows = new BitSet(); // Rows the filter turned down
+        private transient String lastRejection; // Exclusion rule of the record being parsed, if it was left out
+        private final transient FileChannel channel;
+        private final long start;
+        private final long end;
+        private final String[] headers;
+        private final byte delimiter;
+        private final transient GLImporter.RowFilter filter;
+        private final transient ImportReport timings;
+        private transient List<Game> games; // The result, once computed
+
+        ParseTask(FileChannel channel, long start, long end, String[] headers, byte delimiter, GLImporter.RowFilter filter, ImportReport timings) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.headers = headers;
+            this.delimiter = delimiter;
+            this.filter = filter;
+            this.timings = timings;
+        }
+
+        @Override
+        protected List<Game> compute() {
+            games = new ArrayList<>();
+            if (start >= end) {
+                return games;
+            }
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                GLMappedImporter.RowParser parser = new GLMappedImporter.RowParser(headers, delimiter, rule -> lastRejection = rule, filter, timings);
+                int limit = buffer.limit();
+                int position = 0;
+                while (position < limit) {
+                    long tokenizeStart = System.nanoTime();
+                    int recordEnd = GLMappedImporter.recordEnd(buffer, position, limit, delimiter);
+                    if (recordEnd < 0) {
+                        recordEnd = limit; // The last record of the file may not end with a line break
+                    }
+                    timings.addStageTime(ImportReport.Stage.TOKENIZE, System.nanoTime() - tokenizeStart);
+                    lastRejection = null;
+                    Game game = parser.parse(buffer, position, recordEnd);
+                    if (filter != null) {
+                        if (games.size() == keys.length) {
+                            keys = Arrays.copyOf(keys, Math.max(16, keys.length * 2));
+                        }
+                        keys[games.size()] = parser.key();
+                        if (parser.skipped()) {
+                            skippedRows.set(games.size());
+                        }
+                    }
+                    games.add(game);
+                    rejections.add(lastRejection);
+                    position = GLMappedImporter.skipLineBreak(buffer, recordEnd);
+                }
+                return games;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Hands one row of the joined result to the sink, or counts why it was left out. Called on the importing thread.
+         */
+        void handOut(int row, Consumer<Game> sink, ImportReport report, GLImporter.RowFilter filter) {
+            Game game = games.get(row);
+            if (filter != null && skippedRows.get(row)) {
+                filter.skipped(keys[row]);
+            } else if (game != null) {
+                report.countGame();
+                if (filter != null) {
+                    filter.built(keys[row], game);
+                }
+                sink.accept(game);
+            } else if (rejections.get(row) != null) {
+                report.countRejection(rejections.get(row));
+            }
+        }
+    }
+}
@@ -11,8 +11,9 @@
  * - **setupAutoSave()**: Sets up the auto-save mechanism, including creating the auto-save directory and 
  *   scheduling a periodic timer to check for library changes and trigger auto-save when necessary.
  * 
- * - **calculateLibraryHash()**: Calculates a hash value based on the current library contents, allowing 
- *   the program to detect changes in the library and initiate auto-save only when modifications are detected.
+ * - **checkAndAutoSave(Path autoSaveDir)**: Exports the latest snapshot of the library (see LibraryHistory) if its
+ *   version changed since the last auto-save. Snapshots never change, so the timer thread reads one without locks
+ *   while the library is being edited.
  * 
  * - **setupTabs(Stage primaryStage, TabPane tabPane)**: Configures the various tabs in the interface, 
  *   including the main library tab and platform-specific tabs (Steam, GOG, etc.), and sets their behavior 
@@ -23,9 +24,22 @@
  * 
  * - **createGameItem(String name, String description)**: Creates an HBox that visually represents a 
  *   game in the list, displaying the name, description, and a placeholder image.
+ *
+ * - **createGameItem(Game game, String description)**: Creates the same HBox for a game of the library, tagged
+ *   with the game's id so updateGameItem and removeGameItem find it without comparing titles.
+ * 
+ * - **startImport(File file, String platform)**: Imports a CSV file on a background task, showing its progress and
+ *   adding its games to the game list in batches as they are read. With "Changes only" checked, an ImportLedger
+ *   limits the import to the rows that changed since the same source was last imported, and the user is asked
+ *   before games that left the source are removed (see finishIncrementalImport).
+ * 
+ * - **startBatchImport(List<File> files, List<String> platforms)**: Imports several CSV files concurrently, each
+ *   tagged with its own platform, and adds the merged games to the game list in one refresh.
+ * 
+ * - **confirmPlatforms(List<File> files)**: Asks the user to confirm the platform guessed from each file's name.
  * 
  * - **populateGameList(List<Game> games)**: Adds games from an imported CSV file to the game list 
- *   and the internal library, avoiding duplicate entries.
+ *   and the internal library through the LibraryIndex, which decides what happens to duplicates.
  * 
  * - **setupImportSection(Stage primaryStage)**: Creates a ComboBox and a button to import games from 
  *   CSV files, allowing users to select a platform and import the corresponding games into the library.
@@ -52,8 +66,12 @@
  */
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.Alert.AlertType;
@@ -66,7 +84,9 @@ import javafx.scene.image.Image;
 // Relates to files & data
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -75,36 +95,44 @@ import java.util.Arrays;
 import java.util.Map;
 import java.util.Timer; 
 import java.util.TimerTask;
-import java.security.MessageDigest; // For the MD5 hash
 import java.nio.charset.StandardCharsets;
 import java.nio.charset.StandardCharsets;
 import java.io.FileInputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter; // End timer imports
-import java.util.Collections;
 
 public class GUIDriver extends Application {
     // Data Structure Variables
     protected static VBox gameList; // VBox to store the list of game items (games displayed vertically)
     protected static ArrayList<Game> library = new ArrayList<>(); // Game library
+    protected static LibraryIndex libraryIndex = new LibraryIndex(library); // Adds and removes games, catching duplicates by title and platform
+    private static final Map<Long, HBox> gameItemsById = new HashMap<>(); // Item of each game shown in gameList, by game id (kept by trackGameItems)
+    private static boolean libraryViewStale = false; // Set when a duplicate updated a game that is already shown in the game list
+    private static boolean incrementalImport = false; // Re-import only what changed since the last import of the same source
     protected static ArrayList<Game> globalSearchResults = null; //search results to share with filter/sort 
     protected static ArrayList<Game> globalFilterResults = null;  //filter/sort results to share with search results
     protected static ArrayList<Game> listOfGamesWithinTab = new ArrayList<>(); //list of games within tab (i.e. list of steam games within steam)
     protected static String globalSearchQuery = ""; //holds the search query
     protected static String globalTabName = ""; //holds the tab name (e.g. steam)
-    protected static ArrayList<String> attributes = new ArrayList<>(); // Stores the list of game attribute names used for display and export
+    private static Task<?> currentImport; // The background import that is running or last ran
+    private static ProgressBar importProgress; // Shows how much of the file the current import has read
+    private static Label importStatus; // Shows how many games the current import has read
+    private static Button cancelImportButton; // Cancels the current import
     private Timer autoSaveTimer; // Schedules periodic auto-save tasks for the game library
-    private int lastLibraryHash; // Used to detect any changes to the library and trigger auto-saving when necessary
+    private long lastSavedVersion; // Version of the last snapshot auto-saved, to auto-save only when the library changed
     
     // Quick-Edit "Control" Variables
     private static final long AUTO_SAVE_INTERVAL = 180000; // 180000 = 3 minutes in milliseconds -- was modifiying to 10000 = 10 seconds for testing
+    private static final String[] IMPORT_PLATFORMS = {"GameLoom Library", "Steam", "GOG", "Itch.io", "Playstation", "Xbox", "Nintendo"};
+    private static final String GUESS_PLATFORM = "Guess from file names"; // Import dropdown choice to guess each file's platform
     private static final int MAX_AUTO_SAVE_FILES = 20; // Limit the number of auto-save files (20 * 3 min = version control for your last hour of work if you mess something up)
 
 
@@ -151,6 +179,7 @@ public class GUIDriver extends Application {
         gameList = new VBox(10); // VBox with 10px spacing between game items
         gameList.setPadding(new Insets(10)); // Adds padding INSIDE the VBox
         gameList.getStyleClass().add("toTheTop");
+        gameList.getChildren().addListener(GUIDriver::trackGameItems); // Every way items are added or cleared goes through here
     
         // Sets up the various tabs and their content/actions
         setupTabs(primaryStage, tabPane);
@@ -204,8 +233,9 @@ public class GUIDriver extends Application {
             if (!Files.exists(autoSaveDir)) { // Ensure directory exists for saving files
                 Files.createDirectory(autoSaveDir); // Create folder in users home directory if it doesn't already exist
             }
-            // Set the initial library hash
-            lastLibraryHash = calculateLibraryHash();
+            // Set the initial library version, and take a snapshot after every change for the timer to read
+            lastSavedVersion = libraryIndex.getHistory().snapshot().getVersion();
+            libraryIndex.getHistory().publishOn(Platform::runLater);
             // Schedule the auto-save timer
             autoSaveTimer = new Timer(true); // From docs.oracle: Marks this thread as either a daemon thread or a user thread.
             autoSaveTimer.schedule(new TimerTask() { // ^>The Java Virtual Machine exits when the only threads running are all daemon threads. 
@@ -221,56 +251,23 @@ public class GUIDriver extends Application {
 
 
     /**
-    * Calculates a hash value based on the current library contents using MD5 hashing.
-    * This hash allows the program to detect changes in the library and trigger 
-    * auto-save only when modifications are detected.
-    *
-    * @return An integer hash of the current library's state
-    */
-    private int calculateLibraryHash() {
-       try {
-           // Initialize an MD5 MessageDigest instance to compute the hash
-           MessageDigest digest = MessageDigest.getInstance("MD5");
-
-           // Iterate through each game in the library and add all attributes to the hash.
-           for (Game game : library) { // Hashing the library object will return a hash of the memory address.
-               // Retrieve the full attribute map for the game
-               Map<String, String> attributes = game.getAttributes();
-
-               // Convert each attribute key-value pair to bytes and update the digest
-               for (Map.Entry<String, String> entry : attributes.entrySet()) {
-                   digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8)); // Update with attribute key
-                   digest.update(entry.getValue().getBytes(StandardCharsets.UTF_8)); // Update with attribute value
-               }
-           }
-
-           // Complete the hash computation and retrieve the result as a byte array
-           byte[] hashBytes = digest.digest();
-           return Arrays.hashCode(hashBytes); // Return an integer representation of the hash for easy comparison
-       } catch (Exception e) {
-           e.printStackTrace();
-           return 0;
-       }    
-    }   
-
-
-    /**
-     * Checks if the library's hash has changed. If changes are detected, a new auto-save file 
-     * is created with a timestamped filename, and older auto-save files are cleaned up to stay 
+     * Checks if the library changed since the last auto-save. If it did, the latest snapshot of the library is
+     * exported to a new auto-save file with a timestamped filename, and older auto-save files are cleaned up to stay
      * within the maximum limit. Current limit set to: 20
+     * Runs on the auto-save timer's thread, so it only reads the snapshot, never the library itself.
      *
      * @param autoSaveDir The directory for saving auto-save files
      */
     private void checkAndAutoSave(Path autoSaveDir) {
-        int currentLibraryHash = calculateLibraryHash();
-        // Proceed only if changes are detected (hash has changed)
-        if (currentLibraryHash != lastLibraryHash) {
+        LibraryHistory.Snapshot snapshot = libraryIndex.getHistory().latest();
+        // Proceed only if changes are detected (the version has changed)
+        if (snapshot.getVersion() != lastSavedVersion) {
             // Generate a timestamp for the filename
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss"));
             File autoSaveFile = autoSaveDir.resolve("GameLoomLibrary-" + timestamp + ".csv").toFile(); // Default filename: GameLoomLibrary-<timestamp>.csv
-            // Export the library to the auto-save file
-            GLExporter.exportGamesToCSV(library, autoSaveFile);
-            lastLibraryHash = currentLibraryHash; // Update last hash to the current hash
+            // Export the library as it was in the snapshot to the auto-save file
+            GLExporter.exportGamesToCSV(snapshot.games(), autoSaveFile);
+            lastSavedVersion = snapshot.getVersion(); // Update last version to the saved one
             // Clean up older files if file count exceeds MAX_AUTO_SAVE_FILES
             cleanUpOldAutoSaves(autoSaveDir);
         }
@@ -421,12 +418,12 @@ public class GUIDriver extends Application {
                     for (Game game : library) {
                         if (filter.equalsIgnoreCase("physical") && !game.getAttribute(filter).equals("N/A")) {
                             if (displayedGames.add(game)) { // Add only if not already displayed
-                                gameList.getChildren().add(createGameItem(game.getAttribute("title"), game.toString()));
+                                gameList.getChildren().add(createGameItem(game, game.toString()));
                                 listOfGamesWithinTab.add(game);
                             }
                         } else if (game.getPlatform().toLowerCase().contains(filter.toLowerCase())) {
                             if (displayedGames.add(game)) { // Add only if not already displayed
-                                gameList.getChildren().add(createGameItem(game.getAttribute("title"), game.toString()));
+                                gameList.getChildren().add(createGameItem(game, game.toString()));
                                 listOfGamesWithinTab.add(game);
                             }
                         }
@@ -434,7 +431,7 @@ public class GUIDriver extends Application {
                 } else {
                     for (Game game : library) { // For the main tab, display all games
                         if (displayedGames.add(game)) { // Add only if not already displayed
-                            gameList.getChildren().add(createGameItem(game.getAttribute("title"), game.toString()));
+                            gameList.getChildren().add(createGameItem(game, game.toString()));
                             listOfGamesWithinTab.add(game);
                         }
                     }
@@ -557,6 +554,120 @@ public class GUIDriver extends Application {
         return gameBox; // Fully assembled HBox for use in game list
     }
 
+    /**
+     * Creates the game list item of a game like createGameItem(name, description), tagged with the game's id so
+     * the item can be found again when the game is edited or deleted.
+     *
+     * @param game        The game to be displayed
+     * @param description A short description of the game
+     * @return HBox containing the game's image placeholder, name, and description
+     */
+    protected static HBox createGameItem(Game game, String description) {
+        HBox gameBox = createGameItem(game.getAttribute(AttributeKeys.TITLE), description);
+        gameBox.setUserData(game.getId());
+        return gameBox;
+    }
+
+    /**
+     * Shows a game's current title and description in its game list item, if the game is displayed.
+     *
+     * @param game The game that was edited
+     */
+    protected static void updateGameItem(Game game) {
+        HBox gameBox = gameItemsById.get(game.getId());
+        if (gameBox != null) {
+            VBox gameDetails = (VBox) gameBox.getChildren().get(1);
+            ((Label) gameDetails.getChildren().get(0)).setText(game.getAttribute(AttributeKeys.TITLE));
+            ((Label) gameDetails.getChildren().get(1)).setText(game.toString());
+        }
+    }
+
+    /**
+     * Removes a game's item from the game list, if the game is displayed.
+     *
+     * @param id The id of the game (see Game.getId)
+     */
+    protected static void removeGameItem(long id) {
+        HBox gameBox = gameItemsById.get(id);
+        if (gameBox != null) {
+            gameList.getChildren().remove(gameBox);
+        }
+    }
+
+    /**
+     * Undoes the latest edit, deletion, or manual entry (see LibraryIndex.undo) and shows the result in the game list.
+     *
+     * @return true if there was something to undo
+     */
+    protected static boolean undoLastChange() {
+        String label = libraryIndex.getHistory().peekUndo();
+        List<Long> changed = libraryIndex.undo();
+        if (changed == null) {
+            NotificationManager.showNotification("Nothing to undo.", "info");
+            return false;
+        }
+        showChangedGames(changed);
+        NotificationManager.showNotification("Undone: " + label, "success");
+        return true;
+    }
+
+    /**
+     * Redoes the latest undone change (see LibraryIndex.redo) and shows the result in the game list.
+     *
+     * @return true if there was something to redo
+     */
+    protected static boolean redoLastChange() {
+        String label = libraryIndex.getHistory().peekRedo();
+        List<Long> changed = libraryIndex.redo();
+        if (changed == null) {
+            NotificationManager.showNotification("Nothing to redo.", "info");
+            return false;
+        }
+        showChangedGames(changed);
+        NotificationManager.showNotification("Redone: " + label, "success");
+        return true;
+    }
+
+    /**
+     * Updates the game list after an undo or redo changed the given games: edited games get their items updated
+     * and removed games lose theirs. Games that came back need their place in the list, so the list is rebuilt.
+     *
+     * @param ids The ids of the games that changed
+     */
+    private static void showChangedGames(List<Long> ids) {
+        for (long id : ids) {
+            Game game = libraryIndex.getById(id);
+            if (game == null) {
+                removeGameItem(id);
+            } else if (gameItemsById.containsKey(id)) {
+                updateGameItem(game);
+            } else {
+                refreshLibraryView();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Keeps gameItemsById in step with the items in gameList, whichever code adds, replaces, or clears them.
+     *
+     * @param change The change to gameList's items
+     */
+    private static void trackGameItems(ListChangeListener.Change<? extends Node> change) {
+        while (change.next()) {
+            for (Node removed : change.getRemoved()) {
+                if (removed.getUserData() instanceof Long) {
+                    gameItemsById.remove((Long) removed.getUserData(), removed);
+                }
+            }
+            for (Node added : change.getAddedSubList()) {
+                if (added.getUserData() instanceof Long) {
+                    gameItemsById.put((Long) added.getUserData(), (HBox) added);
+                }
+            }
+        }
+    }
+
 
     /**
      * Populates the game list with games imported from a CSV file.
@@ -564,20 +675,337 @@ public class GUIDriver extends Application {
      * the library.
      *
      * @param games A list of Game objects imported from a CSV file
+     * @return The number of games that were new to the library
      */
-    protected static void populateGameList(List<Game> games) {
-        // Add imported games to the VBox and library, avoiding duplicates
+    protected static int populateGameList(List<Game> games) {
         listOfGamesWithinTab = new ArrayList<Game>();
+        int added = appendToGameList(games);
+        refreshLibraryViewIfStale();
+        return added;
+    }
+
+
+    /**
+     * Adds another batch of imported games to the game list, keeping the games added by earlier batches of the
+     * same import. Used by GLImportTask to publish games while the rest of the file is still being read.
+     * Duplicates of games already in the library are handled by libraryIndex's merge policy; if one of them
+     * updates a game that is already displayed, the game list is marked to be rebuilt by refreshLibraryViewIfStale.
+     *
+     * @param games A batch of Game objects imported from a CSV file
+     * @return The number of games that were new to the library
+     */
+    protected static int appendToGameList(List<Game> games) {
+        return appendToGameList(games, libraryIndex.getPolicy());
+    }
+
+
+    /**
+     * Adds a batch of imported games to the game list like appendToGameList(games), handling duplicates with the
+     * given policy. Incremental imports use OVERWRITE, since their duplicates are games whose rows changed.
+     *
+     * @param games A batch of Game objects imported from a CSV file
+     * @param policy What to do with games that are already in the library
+     * @return The number of games that were new to the library
+     */
+    protected static int appendToGameList(List<Game> games, LibraryIndex.MergePolicy policy) {
+        // Add imported games to the VBox and library, avoiding duplicates
+        List<HBox> gameItems = new ArrayList<>(games.size());
         for (Game game : games) {
-            String gameName = game.getAttribute("title"); // Retrieves game name
-            String description = game.toString(); // Retrieves game details
-            if (!library.contains(game)) { // Avoid adding the same game twice
-                library.add(game); // Add game to the library
-                gameList.getChildren().add(createGameItem(gameName, description)); // Display game in the UI
-            
-                listOfGamesWithinTab.add(game); //adds game to container tab
+            switch (libraryIndex.add(game, policy)) { // Constant-time duplicate check by title and platform
+                case ADDED:
+                    gameItems.add(createGameItem(game, game.toString()));
+                    listOfGamesWithinTab.add(game); //adds game to container tab
+                    break;
+                case UPDATED:
+                    libraryViewStale = true; // Its item in the game list shows the old attributes
+                    break;
+                default:
+                    break;
+            }
+        }
+        gameList.getChildren().addAll(gameItems); // Display the whole batch in the UI with a single layout pass
+        return gameItems.size();
+    }
+
+
+    /**
+     * Finishes the ledger sessions of an incremental import once its games are in the library, then lists the games
+     * whose rows left their sources and asks the user before removing them. Only games a source added itself and
+     * that nobody edited since are listed (see ImportLedger.Session.finish). The removal is one undo step.
+     *
+     * @param sessions The ledger sessions of the files that were read to the end
+     * @return The number of games removed from the library
+     */
+    protected static int finishIncrementalImport(List<ImportLedger.Session> sessions) {
+        List<Game> missing = new ArrayList<>();
+        for (ImportLedger.Session session : sessions) {
+            missing.addAll(session.finish(libraryIndex));
+        }
+        saveImportLedger();
+        if (missing.isEmpty() || !confirmRemoval(missing)) {
+            return 0;
+        }
+
+        LibraryHistory.Snapshot before = libraryIndex.getHistory().snapshot();
+        int removed = 0;
+        for (Game game : missing) {
+            if (libraryIndex.remove(game)) {
+                listOfGamesWithinTab.remove(game);
+                removeGameItem(game.getId());
+                removed++;
+            }
+        }
+        libraryIndex.getHistory().record("Remove " + removed + " games no longer in the import", before);
+        return removed;
+    }
+
+
+    /**
+     * Asks the user whether to remove the games an incremental import found missing from their sources.
+     *
+     * @param games The games, listed by title (the first few)
+     * @return true if the user chose to remove them
+     */
+    private static boolean confirmRemoval(List<Game> games) {
+        StringBuilder titles = new StringBuilder();
+        for (int i = 0; i < Math.min(games.size(), 10); i++) {
+            titles.append("- ").append(games.get(i).getTitle()).append('\n');
+        }
+        if (games.size() > 10) {
+            titles.append("... and ").append(games.size() - 10).append(" more\n");
+        }
+
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmAlert.setTitle("Games no longer in the import");
+        confirmAlert.setHeaderText(games.size() + " game(s) added by earlier imports of these files are no longer in them.");
+        confirmAlert.setContentText(titles + "\nDo you want to remove them from your GameLoom Library? Games you edited since are not listed.");
+        confirmAlert.getDialogPane().setMinHeight(Region.USE_PREF_SIZE); //Resizes dialog to fit text
+
+        ButtonType removeButton = new ButtonType("Remove", ButtonBar.ButtonData.YES);
+        ButtonType keepButton = new ButtonType("Keep", ButtonBar.ButtonData.NO);
+        confirmAlert.getButtonTypes().setAll(removeButton, keepButton);
+        Optional<ButtonType> result = confirmAlert.showAndWait();
+        return result.isPresent() && result.get() == removeButton;
+    }
+
+
+    /**
+     * Saves the import ledger on a background thread, so writing a large ledger doesn't hold up the window.
+     */
+    private static void saveImportLedger() {
+        Thread saveThread = new Thread(() -> {
+            try {
+                ImportLedger.getActive().save();
+            } catch (IOException e) {
+                e.printStackTrace(); // The import itself succeeded; the next one just compares against an older ledger
+            }
+        }, "GameLoom Ledger Save");
+        saveThread.start();
+    }
+
+
+    /**
+     * Rebuilds the game list from the library if an import updated games that were already displayed.
+     * Called once at the end of an import rather than once per batch.
+     */
+    protected static void refreshLibraryViewIfStale() {
+        if (libraryViewStale) {
+            refreshLibraryView();
+        }
+    }
+
+
+    /**
+     * Rebuilds the game list from the library, e.g. after duplicates updated games that were already displayed.
+     */
+    protected static void refreshLibraryView() {
+        libraryViewStale = false;
+        List<HBox> gameItems = new ArrayList<>(library.size());
+        for (Game game : library) {
+            gameItems.add(createGameItem(game, game.toString()));
+        }
+        gameList.getChildren().setAll(gameItems);
+    }
+
+
+    /**
+     * Imports a CSV file on a background GLImportTask, showing its progress in the import section.
+     * Games appear in the game list in batches while the file is read, and the import can be cancelled
+     * with the import section's cancel button.
+     *
+     * @param file The CSV file to import
+     * @param platform The platform selected (e.g., "Nintendo"), or "GameLoom Library"
+     */
+    protected static void startImport(File file, String platform) {
+        if (isImportRunning()) {
+            return;
+        }
+
+        listOfGamesWithinTab = new ArrayList<Game>(); // The new import starts a fresh container tab list
+        int[] added = {0}; // New games so far, only touched on the JavaFX Application Thread
+        boolean incremental = incrementalImport;
+        LibraryIndex.MergePolicy policy = incremental ? LibraryIndex.MergePolicy.OVERWRITE : libraryIndex.getPolicy(); // Changed rows replace their games
+        GLImportTask task = new GLImportTask(file, platform, games -> added[0] += appendToGameList(games, policy));
+        if (incremental) {
+            task.useLedger(ImportLedger.getActive(), libraryIndex.ids());
+        }
+        task.setOnSucceeded(event -> {
+            setImportControlsVisible(false);
+            refreshLibraryViewIfStale();
+            int removed = (task.getLedgerSession() == null) ? 0 : finishIncrementalImport(List.of(task.getLedgerSession()));
+            if (task.isUnchanged()) {
+                NotificationManager.showNotification("No changes since the last import of this file.", "info");
+            } else if (incremental) {
+                NotificationManager.showNotification("CSV successfully re-imported! (" + task.getValue() + " changed, " + task.getUnchangedRows() + " unchanged, " + removed + " removed)\n" + task.getReport(), "success");
+            } else {
+                NotificationManager.showNotification("CSV successfully imported! (" + added[0] + " new of " + task.getValue() + " games)\n" + task.getReport(), "success");
+            }
+        });
+        task.setOnCancelled(event -> {
+            setImportControlsVisible(false);
+            refreshLibraryViewIfStale();
+            NotificationManager.showNotification("Import cancelled. Games read so far were kept.", "info");
+        });
+        runImport(task);
+    }
+
+
+    /**
+     * Imports several CSV files at once on a background GLBatchImportTask, showing its progress in the import section.
+     * The files are parsed concurrently and their games are added to the game list in a single refresh at the end.
+     *
+     * @param files The CSV files to import
+     * @param platforms The platform of each file, selected in the dropdown or confirmed by the user (see confirmPlatforms)
+     */
+    protected static void startBatchImport(List<File> files, List<String> platforms) {
+        if (isImportRunning()) {
+            return;
+        }
+
+        boolean incremental = incrementalImport;
+        GLBatchImportTask task = new GLBatchImportTask(files, platforms);
+        if (incremental) {
+            task.useLedger(ImportLedger.getActive(), libraryIndex.ids());
+        }
+        task.setOnSucceeded(event -> {
+            setImportControlsVisible(false);
+            long populateStart = System.nanoTime();
+            listOfGamesWithinTab = new ArrayList<Game>();
+            int added = appendToGameList(task.getValue(), incremental ? LibraryIndex.MergePolicy.OVERWRITE : libraryIndex.getPolicy());
+            refreshLibraryViewIfStale(); // One refresh for the whole batch
+            task.getReport().addStageTime(ImportReport.Stage.POPULATE, System.nanoTime() - populateStart);
+            int removed = incremental ? finishIncrementalImport(task.getLedgerSessions()) : 0;
+            if (incremental) {
+                NotificationManager.showNotification(files.size() + " CSV files successfully re-imported! (" + task.getValue().size() + " changed, " + removed + " removed, " + task.getUnchangedFiles() + " files unchanged)\n" + task.getReport(), "success");
+            } else {
+                NotificationManager.showNotification(files.size() + " CSV files successfully imported! (" + added + " new of " + task.getValue().size() + " games)\n" + task.getReport(), "success");
             }
+        });
+        task.setOnCancelled(event -> {
+            setImportControlsVisible(false);
+            NotificationManager.showNotification("Batch import cancelled. No games were added.", "info");
+        });
+        runImport(task);
+    }
+
+
+    /**
+     * Checks whether a background import is still running, telling the user to wait if so.
+     */
+    private static boolean isImportRunning() {
+        if (currentImport != null && currentImport.isRunning()) { // Only one import at a time
+            NotificationManager.showNotification("Please wait for the current import to finish.", "error");
+            return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Shows the progress of an import task in the import section and starts it on a background thread.
+     * The task's own success and cancel handlers must hide the progress controls again.
+     */
+    private static void runImport(Task<?> task) {
+        currentImport = task;
+
+        // Show the progress controls while the import runs
+        importProgress.progressProperty().bind(task.progressProperty());
+        importStatus.textProperty().bind(task.messageProperty());
+        setImportControlsVisible(true);
+
+        task.setOnFailed(event -> {
+            setImportControlsVisible(false);
+            task.getException().printStackTrace();
+            NotificationManager.showNotification("Import failed: " + task.getException().getMessage(), "error");
+        });
+
+        Thread importThread = new Thread(task, "GameLoom CSV Import");
+        importThread.setDaemon(true); // Don't keep the application alive if the window is closed mid-import
+        importThread.start();
+    }
+
+
+    /**
+     * Shows or hides the import progress bar, status text, and cancel button.
+     */
+    private static void setImportControlsVisible(boolean visible) {
+        for (Control control : List.of(importProgress, importStatus, cancelImportButton)) {
+            control.setVisible(visible);
+            control.setManaged(visible); // Hidden controls take up no space in the import section
+        }
+        if (!visible) {
+            importProgress.progressProperty().unbind();
+            importStatus.textProperty().unbind();
+        }
+    }
+
+
+    /**
+     * Shows the platform guessed from each file's name (see GLBatchImportTask.guessPlatform) and lets the user change
+     * any of them before the import starts. A file's platform decides how many trailer rows are cut from it, so a
+     * wrong guess would drop real games. The import can't start until every file has a platform.
+     *
+     * @param files The CSV files about to be imported
+     * @return The platform of each file, in the same order as the files, or null if the user cancelled
+     */
+    private static List<String> confirmPlatforms(List<File> files) {
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(5);
+        List<ComboBox<String>> choices = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            ComboBox<String> choice = new ComboBox<>();
+            choice.getItems().addAll(IMPORT_PLATFORMS);
+            choice.setValue(GLBatchImportTask.guessPlatform(files.get(i).getName())); // Empty if the name gives nothing away
+            choice.setPromptText("Choose import type");
+            grid.addRow(i, new Label(files.get(i).getName()), choice);
+            choices.add(choice);
+        }
+
+        Alert confirmAlert = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmAlert.setTitle("Confirm platforms");
+        confirmAlert.setHeaderText("Check the platform of each file before importing.");
+        confirmAlert.getDialogPane().setContent(grid);
+        ButtonType importButton = new ButtonType("Import", ButtonBar.ButtonData.OK_DONE);
+        confirmAlert.getButtonTypes().setAll(importButton, ButtonType.CANCEL);
+
+        // Enable the import button only when every file has a platform
+        Node importNode = confirmAlert.getDialogPane().lookupButton(importButton);
+        Runnable updateImportNode = () -> importNode.setDisable(choices.stream().anyMatch(choice -> choice.getValue() == null));
+        for (ComboBox<String> choice : choices) {
+            choice.setOnAction(event -> updateImportNode.run());
+        }
+        updateImportNode.run();
+
+        Optional<ButtonType> result = confirmAlert.showAndWait();
+        if (result.isEmpty() || result.get() != importButton) {
+            return null;
+        }
+        List<String> platforms = new ArrayList<>();
+        for (ComboBox<String> choice : choices) {
+            platforms.add(choice.getValue());
         }
+        return platforms;
     }
 
 
@@ -586,9 +1014,10 @@ public class GUIDriver extends Application {
     * 
     * This method creates a ComboBox to allow the user to select a platform (e.g., Steam, GOG, Playstation)
     * and an import button that is initially disabled until a platform is selected. When the import button 
-    * is clicked, it opens a FileChooser to allow the user to select a CSV file for importing games. The 
+    * is clicked, it opens a FileChooser to allow the user to select one or more CSV files for importing games. The 
     * selected platform is added as an attribute to each imported game, and the game list is populated with 
-    * the imported games.
+    * the imported games. With "Guess from file names" selected, the user confirms the platform guessed from each
+    * file's name first (see confirmPlatforms).
     * 
     * @param primaryStage The main stage of the JavaFX application, used for opening dialogs.
     * @return HBox containing both the platform dropdown and the import button, which can be added to the UI.
@@ -596,10 +1025,24 @@ public class GUIDriver extends Application {
     private HBox setupImportSection(Stage primaryStage) {
         // **Platform Dropdown**: Added next to the import button for platform selection
         ComboBox<String> platformDropdown = new ComboBox<>(); // Dropdown for selecting a platform for game imports
-        platformDropdown.getItems().addAll("GameLoom Library", "Steam", "GOG", "Itch.io", "Playstation", "Xbox", "Nintendo"); // Adds options to the dropdown
+        platformDropdown.getItems().addAll(IMPORT_PLATFORMS); // Adds options to the dropdown
+        platformDropdown.getItems().add(GUESS_PLATFORM); // For files of several platforms at once
         platformDropdown.setPromptText("Choose import type"); // Sets prompt text in the dropdown
         platformDropdown.setMaxWidth(150); // Sets the maximum width of the dropdown
 
+        // **Duplicates Dropdown**: What to do with imported games that are already in the library
+        ComboBox<LibraryIndex.MergePolicy> duplicatesDropdown = new ComboBox<>();
+        duplicatesDropdown.getItems().addAll(LibraryIndex.MergePolicy.values());
+        duplicatesDropdown.setValue(libraryIndex.getPolicy());
+        duplicatesDropdown.setTooltip(new Tooltip("Duplicates (same title and platform): skip them, overwrite the library's copy, or fill in its missing fields"));
+        duplicatesDropdown.setOnAction(event -> libraryIndex.setPolicy(duplicatesDropdown.getValue()));
+
+        // **Changes Only Checkbox**: Re-imports only the rows that changed since the last import of the same source
+        CheckBox incrementalBox = new CheckBox("Changes only");
+        incrementalBox.setSelected(incrementalImport);
+        incrementalBox.setTooltip(new Tooltip("Skip files and rows that haven't changed since they were last imported, and offer to remove games that are no longer in the export"));
+        incrementalBox.setOnAction(event -> incrementalImport = incrementalBox.isSelected());
+
         // **Import Button**: Initially disabled until a platform is selected
         Button importButton = new Button("Import Games from CSV");
         importButton.setDisable(true); // Disables the button until a platform is selected
@@ -612,29 +1055,42 @@ public class GUIDriver extends Application {
 
         // Action on clicking the import button
         importButton.setOnAction(event -> {
-            FileChooser fileChooser = new FileChooser(); // Opens a file chooser to select a CSV file
-            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv")); // Limits file type to CSV
-            File selectedFile = fileChooser.showOpenDialog(primaryStage); // Shows the open file dialog
+            FileChooser fileChooser = new FileChooser(); // Opens a file chooser to select one or more CSV files
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv", "*.gz", "*.zip")); // Limits file type to CSV, plain or compressed
+            List<File> selectedFiles = fileChooser.showOpenMultipleDialog(primaryStage); // Shows the open file dialog
 
-            if (selectedFile != null) { // If a file is selected
+            if (selectedFiles != null && !selectedFiles.isEmpty()) { // If at least one file is selected
                 String selectedPlatform = platformDropdown.getValue(); // Gets the selected platform from the dropdown
-                List<Game> importedGames = GLImporter.importGamesFromCSV(selectedFile.getPath(),selectedPlatform); // Imports games from the selected CSV file
-
-                // Only assign the platform if the selected option is not "GameLoom Library" (import an existing library from our program)
-                if (!"GameLoom Library".equals(selectedPlatform)) {
-                    for (Game game : importedGames) {
-                        game.getAttributes().put("platform", selectedPlatform); // Adds platform attribute to each game
-                    }
+                List<String> platforms = GUESS_PLATFORM.equals(selectedPlatform)
+                        ? confirmPlatforms(selectedFiles) // Null if the user cancelled
+                        : new ArrayList<>(Collections.nCopies(selectedFiles.size(), selectedPlatform));
+                if (platforms == null) {
+                    return;
                 }
+                if (selectedFiles.size() == 1) {
+                    startImport(selectedFiles.get(0), platforms.get(0)); // Imports games in the background, adding them to the UI as they are read
+                } else {
+                    startBatchImport(selectedFiles, platforms); // Imports every file concurrently, then adds them all at once
+                }
+            }
+        });
 
-                populateGameList(importedGames); // Adds games to the game list in the UI
-                NotificationManager.showNotification("CSV successfully imported!", "success");
+        // **Import Progress**: Progress bar, status text, and cancel button, only shown while an import runs
+        importProgress = new ProgressBar(0);
+        importProgress.setPrefWidth(120);
+        importStatus = new Label();
+        cancelImportButton = new Button("Cancel");
+        cancelImportButton.setOnAction(event -> {
+            if (currentImport != null) {
+                currentImport.cancel(); // Interrupts the import thread
             }
         });
+        setImportControlsVisible(false);
 
-        // Return an HBox containing both the platform dropdown and the import button
+        // Return an HBox containing the platform dropdown, the import button, and the import progress
         HBox importSection = new HBox(10); // HBox with 10px spacing between elements
-        importSection.getChildren().addAll(platformDropdown, importButton); // Add dropdown and button to HBox
+        importSection.setAlignment(Pos.CENTER_LEFT);
+        importSection.getChildren().addAll(platformDropdown, duplicatesDropdown, incrementalBox, importButton, importProgress, importStatus, cancelImportButton); // Add dropdown, button, and progress to HBox
         //importSection.getStyleClass().add("transparent");
 
         return importSection; // Return the HBox to be used in the main layout
@@ -752,20 +1208,20 @@ public class GUIDriver extends Application {
         if (searchText.isEmpty()) {
             globalSearchResults = null;
             for (Game game : listOfGamesWithinTab) {
-                gameList.getChildren().add(createGameItem(game.getAttribute("title"), game.toString()));
+                gameList.getChildren().add(createGameItem(game, game.toString()));
             }
         } else {
             // Filter the games based on the search keyword (searching both game name and description)
             for (Game game : myLibrary) {
-                String gameName = game.getAttribute("title").toLowerCase().trim(); // Normalize game name to lowercase
-                String description = game.toString().toLowerCase().trim(); // Normalize game description to lowercase
+                String searchableText = game.getSearchText(); // Game name and description in lowercase, on separate lines
                 boolean matchFound = true;// Initialize the match flag
 
 
                 // Check if all search terms are found in the game name or description
+                // Terms never hold a line break, so a term can't match across the name and the description
                 for (String term : searchTerms) {
                     term = term.toLowerCase().trim();
-                    if (!gameName.contains(term) && !description.contains(term)) {
+                    if (!searchableText.contains(term)) {
                         matchFound = false; // Set matchFound to false if any term doesn't match
                         break; // Exit the loop early since this game doesn't match
                     } 
@@ -773,7 +1229,7 @@ public class GUIDriver extends Application {
 
                 // If all terms match, add the game to the displayed game list and the results
                 if (matchFound) {
-                    gameList.getChildren().add(createGameItem(game.getAttribute("title"), game.toString()));
+                    gameList.getChildren().add(createGameItem(game, game.toString()));
                     gameSearchResults.add(game); 
                 }
             }
@@ -873,7 +1329,19 @@ public class GUIDriver extends Application {
         numberFilterVBox.setAlignment(Pos.CENTER_LEFT);
         numberFilterVBox.getStyleClass().add("transparent");
 
+        /** Filter Option 5: By Yes/No Features (e.g. multiplayer, captions) */
+        CheckBox featureCheckBox = new CheckBox("Features: ");
+        TextField featureTextField = new TextField();
+        featureTextField.setPromptText("e.g. multiplayer, captions");
+        featureTextField.setPrefWidth(170);
+        ComboBox<String> featureMatchDropDown = new ComboBox<>(); // Whether a game needs every feature or just one
+        featureMatchDropDown.getItems().addAll("All", "Any");
+        featureMatchDropDown.getSelectionModel().selectFirst();
+        HBox featureFilterBox = new HBox(10, featureCheckBox, featureTextField, featureMatchDropDown);
+        featureFilterBox.setAlignment(Pos.CENTER_LEFT);
+
         platformFilterBox.getStyleClass().add("transparent");
+        featureFilterBox.getStyleClass().add("transparent");
         keywordFilterHBox.getStyleClass().add("transparent");
         dateFilterBox.getStyleClass().add("transparent");
         rangeFieldsBox.getStyleClass().add("transparent");
@@ -950,14 +1418,14 @@ public class GUIDriver extends Application {
             ascendButton.setDisable(false);
             descendButton.setDisable(false);
 
-            //byDate -- automatically selects numerical
+            //Date (GameSorter.sortByDate) -- automatically selects numerical
             if(field.equals("Date")) { 
                 numButton.setSelected(true);
                 numButton.setDisable(false);
                 alphaButton.setDisable(true);
 
             }
-            //byTitle or byPlatform - selects alphabetical
+            //Title or Platform (GameSorter.sortByTitle, sortByPlatform) - selects alphabetical
             else if(field.equals("Title") || field.equals("Platform")) {
                 alphaButton.setSelected(true);
                 alphaButton.setDisable(false);
@@ -987,6 +1455,20 @@ public class GUIDriver extends Application {
         });
 
 
+        //Custom field -- selects numerical (numbers, dates, yes/no) or alphabetical from the type inferred for the field
+        textField.textProperty().addListener((observable, oldText, newText) -> {
+            String key = Normalizer.normalizeKey(newText.trim().toLowerCase());
+            SchemaRegistry.Stats stats = SchemaRegistry.getActive().stats(key);
+            if(stats != null && stats.getNonEmptyCount() > 0) {
+                if(libraryIndex.getStore().type(AttributeKeys.find(key)) != LibraryStore.Type.TEXT) {
+                    numButton.setSelected(true);
+                } else {
+                    alphaButton.setSelected(true);
+                }
+            }
+        });
+
+
         //Resets everything to default sort & filter settings
         resetButton.setOnAction(event -> {
             gameList.getChildren().clear(); // Clear the current game list in the UI  
@@ -994,7 +1476,7 @@ public class GUIDriver extends Application {
 
             //Resets it to the tab selected
             for(Game game : listOfGamesWithinTab) {
-                gameList.getChildren().add(createGameItem(game.getAttribute("title"), game.toString()));
+                gameList.getChildren().add(createGameItem(game, game.toString()));
             }
 
             if(!globalSearchQuery.isEmpty()) {
@@ -1018,7 +1500,10 @@ public class GUIDriver extends Application {
             startNumberTextField.clear();
             endNumberTextField.clear();
             customNumTextField.clear();
+            featureTextField.clear();
+            featureMatchDropDown.getSelectionModel().selectFirst();
             platformCheckBox.setSelected(false);
+            featureCheckBox.setSelected(false);
             dateCheckBox.setSelected(false);
             filterKeywordCheckBox.setSelected(false);
             numberCheckBox.setSelected(false);
@@ -1043,6 +1528,8 @@ public class GUIDriver extends Application {
             double endNum = Double.NEGATIVE_INFINITY;
             int startDate = -1;
             int endDate = -1;
+            int[] featureIds = new int[0];
+            boolean anyFeature = false;
 
 
             if(globalSearchResults != null) {
@@ -1230,9 +1717,32 @@ public class GUIDriver extends Application {
                     customNumTextField.clear();
                 }
 
+                //filters by yes/no features (e.g. multiplayer, captions), all of them or any of them
+                if(featureCheckBox.isSelected()) {
+                    String[] featureInputs = featureTextField.getText().split(",");
+                    List<Integer> ids = new ArrayList<>();
+                    for(String featureInput : featureInputs) {
+                        String feature = Normalizer.normalizeKey(featureInput.trim().toLowerCase());
+                        if(!feature.isEmpty()) {
+                            ids.add(AttributeKeys.find(feature)); //-1 for a name no game has, without registering it
+                        }
+                    }
+                    optionSelected = true;
+
+                    if(ids.isEmpty()) { //Error Handling: no features given
+                        errorMsg.setStyle("-fx-text-fill: red; -fx-font-size: 10px;");
+                        errorMsg.setText("Please enter one or more features, separated by commas");
+                        return;
+                    }
+                    featureIds = ids.stream().mapToInt(Integer::intValue).toArray();
+                    anyFeature = "Any".equals(featureMatchDropDown.getValue());
+                } else {
+                    featureTextField.clear();
+                }
+
                 //Call the filter method
                 filteredLibrary = filter(filteredLibrary, platformName, platformField, keyword, 
-                customField, startDate, endDate, startNum, endNum, customNumField);
+                customField, startDate, endDate, startNum, endNum, customNumField, featureIds, anyFeature);
                 globalFilterResults = filteredLibrary; //sets global variable to the filter results
 
                 /** Sort Handling */
@@ -1251,7 +1761,7 @@ public class GUIDriver extends Application {
                     gameList.getChildren().clear(); //clear game list   
                     if(sortedLibrary != null) {
                         for(Game game : sortedLibrary) { //populate game list with results
-                            gameList.getChildren().add(createGameItem(game.getAttribute("title"), game.toString()));
+                            gameList.getChildren().add(createGameItem(game, game.toString()));
                         }
                         globalFilterResults = sortedLibrary;
                         NotificationManager.showNotification("Sort & Filter selections have been successfully applied!", "success");
@@ -1264,7 +1774,7 @@ public class GUIDriver extends Application {
                 } else {//if sort is not chosen, just populate game list with "filtered results"
                     gameList.getChildren().clear(); //clear game list
                     for(Game game : filteredLibrary) { //populate game list with results
-                        gameList.getChildren().add(createGameItem(game.getAttribute("title"), game.toString()));
+                        gameList.getChildren().add(createGameItem(game, game.toString()));
                     }
                     globalFilterResults = filteredLibrary;
                     NotificationManager.showNotification("Filter selections have been successfully applied!", "success");
@@ -1275,7 +1785,7 @@ public class GUIDriver extends Application {
         // Add the components to the VBox
         sortFilterBox.getChildren().addAll(
         labelBox, buttonBox, errorMsg, //Main features: title, button, error message
-        filterLabel, filterOptions, platformFilterBox, keywordFilterHBox, dateFilterBox, numberFilterVBox,  //filter options 
+        filterLabel, filterOptions, platformFilterBox, featureFilterBox, keywordFilterHBox, dateFilterBox, numberFilterVBox,  //filter options 
         bufferZone, sortVBox, sortRadioOptions);  //sorting options
 
         return sortFilterBox; // Return the fully assembled VBox
@@ -1293,9 +1803,11 @@ public class GUIDriver extends Application {
      * @param endNum the higher end of the custom number range, negative infinity otherwise
      * @param startDate the lower end of the date range, -1 otherwise
      * @param endDate the higher end of the date range, -1 otherwise
+     * @param featureIds the AttributeKeys ids of the yes/no features a game must have (-1 for names no game has), empty otherwise
+     * @param anyFeature whether one of the features is enough instead of all of them
      * @return the game library entries filtered
      */
-    private ArrayList<Game> filter(ArrayList<Game> library, String platformName, String platformField, String keyword, String customField, int startDate, int endDate, double startNum, double endNum, String customNumField) {
+    private ArrayList<Game> filter(ArrayList<Game> library, String platformName, String platformField, String keyword, String customField, int startDate, int endDate, double startNum, double endNum, String customNumField, int[] featureIds, boolean anyFeature) {
         ArrayList<Game> filteredResults = new ArrayList<Game>();
 
         if(library == null || library.size() == 0) {
@@ -1309,42 +1821,64 @@ public class GUIDriver extends Application {
         customField = Normalizer.normalizeKey(customField);
         customNumField = Normalizer.normalizeKey(customNumField);
 
+        //Resolve each field once for the whole library, without registering names the user typed
+        //A field no game has reads "N/A" for every game, so its filter is decided once here
+        int platformId = platformName.isEmpty() ? -1 : AttributeKeys.find(platformField);
+        int customId = keyword.isEmpty() ? -1 : AttributeKeys.find(customField);
+        int customNumId = customNumField.isEmpty() ? -1 : AttributeKeys.find(customNumField);
+        boolean numberFilter = !customNumField.isEmpty() && startNum != Double.NEGATIVE_INFINITY && endNum != Double.NEGATIVE_INFINITY;
+        //A field inferred to hold dates is filtered by year, like the release date; any other by its number
+        boolean yearFilter = numberFilter && libraryIndex.getStore().type(customNumId) == LibraryStore.Type.DATE;
+        if((!platformName.isEmpty() && platformId < 0 && !"n/a".contains(platformName))
+                || (!keyword.isEmpty() && customId < 0 && !"n/a".contains(keyword))
+                || (numberFilter && customNumId < 0)) {
+            return filteredResults; //no game can match
+        }
+        //A whole language name in "languages" is tested against each game's language mask instead of its text
+        long languageBit = (customId == AttributeKeys.LANGUAGES) ? Languages.bit(keyword) : 0;
+        //Features are combined over the whole library 64 games at a time, then each game only checks its own bit
+        FeatureFlags flags = libraryIndex.getFlags();
+        long[] featureBitmap = (featureIds.length == 0) ? null : (anyFeature ? flags.any(featureIds) : flags.all(featureIds));
+
         for(Game game : library) {
             boolean matchFound = true;
-            if(!platformName.isEmpty()) { //if applicable, filters out word in field (e.g. Steam in Platform)
-                String attribute = game.getAttribute(platformField).toLowerCase().trim();
+            if(featureBitmap != null && !flags.contains(featureBitmap, game)) { //if applicable, checks the features
+                matchFound = false;
+            }
+            if(matchFound && platformId >= 0) { //if applicable, filters out word in field (e.g. Steam in Platform)
+                String attribute = game.getAttribute(platformId).toLowerCase().trim();
                 if(!attribute.contains(platformName)) {
                     matchFound = false;
                 } 
             }
-            if(matchFound && !keyword.isEmpty()) { //if applicable, checks if word in customfield
-                String attribute = game.getAttribute(customField).toLowerCase().trim();
+            if(matchFound && languageBit != 0) { //if applicable, checks if the game supports the language
+                if((game.getLanguages() & languageBit) == 0) {
+                    matchFound = false;
+                }
+            } else if(matchFound && customId >= 0) { //if applicable, checks if word in customfield
+                String attribute = game.getAttribute(customId).toLowerCase().trim();
                 if(!attribute.contains(keyword)) {
                     matchFound = false;
                 }
             }
-            if(matchFound && !customNumField.isEmpty() && startNum != Double.NEGATIVE_INFINITY && endNum != Double.NEGATIVE_INFINITY) { //if applicable, checks date
-                String attribute = game.getAttribute(customNumField).toLowerCase().trim();
-                try {
-                    Double myData = Double.parseDouble(attribute);
-                    if(!(myData >= startNum && myData <= endNum)) {
-                        matchFound = false;
-                    }
-                } catch (NumberFormatException e) {
+            if(matchFound && numberFilter) { //if applicable, checks the number
+                //parsed when the value was stored, NaN if not a number or date
+                double myData = yearFilter ? (game.isValid(customNumId) ? game.getDate(customNumId) / 10000 : Double.NaN) : game.getNumber(customNumId);
+                if(!(myData >= startNum && myData <= endNum)) {
                     matchFound = false;
                 }
             }
             if(matchFound && startDate != -1 && endDate != -1) { //if applicable, filter date
-                String attribute = game.getAttribute("release_date").toLowerCase().trim();  
-                try {
-                    if(attribute.length() == 10) { //gets first four digits if date-formatted string
-                        attribute = attribute.substring(0,4);
-                    }
-                    Double myData = Double.parseDouble(attribute);
-                    if(!(myData >= startDate && myData <= endDate)) {
-                        matchFound = false;
-                    }
-                } catch (NumberFormatException e) {
+                int date = game.getDate(AttributeKeys.RELEASE_DATE);
+                double myData;
+                if(date != Game.NO_DATE) { //gets the year if date-formatted string
+                    myData = date / 10000;
+                } else if(game.getAttribute(AttributeKeys.RELEASE_DATE).trim().length() == 10) { //first four characters of other 10-character values, as before
+                    myData = Game.parseNumber(game.getAttribute(AttributeKeys.RELEASE_DATE).trim().substring(0,4));
+                } else { //a year on its own (e.g. "2019")
+                    myData = game.getNumber(AttributeKeys.RELEASE_DATE);
+                }
+                if(!(myData >= startDate && myData <= endDate)) {
                     matchFound = false;
                 }
             }
@@ -1357,7 +1891,7 @@ public class GUIDriver extends Application {
 
     /***** SORT IMPLEMENTATION */
     /**
-     * This method sorts the games library. The sorting comparison logic can be found in the game class.
+     * This method sorts the games library. The sorting logic can be found in the GameSorter class.
      * @param myLibrary list of games we are sorting
      * @param field the field we are sorting by (i.e. Title, Platform, etc)
      * @param customField the custom field if the custom option is selected, empty string if not applicable
@@ -1369,25 +1903,25 @@ public class GUIDriver extends Application {
         field = field.trim().toLowerCase();
         customField = Normalizer.normalizeKey(customField);
 
-        Comparator<Game> comparator = null;
+        //Each game's key is read once and the keys are sorted, instead of comparing games with Game's comparators
         if(field.equals("title")) {
-            comparator = Game.byTitle;
+            GameSorter.sortByTitle(myLibrary, isAscending);
         } else if (field.equals("platform")){
-            comparator = Game.byPlatform;
+            GameSorter.sortByPlatform(myLibrary, isAscending);
         } else if (field.equals("date")){
-            comparator = Game.byDate(isAscending);
+            GameSorter.sortByDate(myLibrary, isAscending);
         } else {
+            int customId = AttributeKeys.find(customField); //without registering a name the user typed
+            if(customId < 0) {
+                return myLibrary; //no game has the field, so every game reads "N/A" and keeps its place
+            }
             if(isAlphabetical) {
-                comparator = Game.byFieldString(isAscending, customField);
+                GameSorter.sortByText(myLibrary, customId, isAscending);
             }
-            else {
-                comparator = Game.byFieldDouble(isAscending, customField);
+            else { //dates by date, yes/no by flag, anything else by number, from the type inferred for the field
+                GameSorter.sortByValue(myLibrary, customId, libraryIndex.getStore().type(customId), isAscending);
             }
         }
-        if(!isAscending) {
-            comparator = comparator.reversed();
-        }
-        Collections.sort(myLibrary, comparator);
         return myLibrary;
     }
 
@@ -6,11 +6,17 @@
  * as well as to get a summary of the game details via a custom toString method.
  * 
  * Key functionalities include:
- * - Storing game attributes as a Map<String, String>. (HashMap)
+ * - Storing game attributes as a Map<String, String>. (HashMap) Once the game is in the library its attributes
+ *   live in the library's LibraryStore instead, and getAttributes returns a view of the game's row there.
  * - Providing access to individual game attributes via getAttribute.
  * - Returning the platform of the game via getPlatform.
+ * - Returning the languages of the game as a bitmask over the Languages dictionary via getLanguages.
+ * - Identifying the game by a 64-bit id via getId, which stays the same when the game is edited and is saved with the
+ *   library (the ID_KEY column of an export), so the game keeps it across sessions.
  * - Generating a string summary of key game attributes, such as Metacritic 
  *   score, platform, hours played, and release date.
+ * - Keeping that summary, the display string and the lower-cased search text of games in the library until their
+ *   attributes change, which getVersion counts, so searches and lists don't rebuild them for unchanged games.
  * 
  * Note: Some platform detection logic has been removed in the most recent update, 
  * focusing on the platform attribute provided within the CSV import process (as of 10/16).
@@ -26,18 +32,58 @@
  * @author GameLoom Team
  * @version 1.4
  */
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.Collections;
 import java.util.List;
 import java.lang.*;
 
 public class Game {
+    // What getDate and parseDate return for values that aren't dates
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Column the id is saved under in exports of the library; it is read back into the id, never into the attributes
+    public static final String ID_KEY = "gameloom_id";
+
+    // Stable id of the game, random so ids made in different sessions don't collide (see LibraryIndex.getById)
+    private long id = newId();
+
     // Attributes map that stores game data as key-value pairs
     // Example: {"platform": "Steam", "metascore": "90"}
+    // Only used while the game isn't in the library; null while its attributes are in a LibraryStore
     private Map<String, String> attributes = new HashMap<>();
 
+    // The store and row holding the game's attributes while it is in the library (see LibraryIndex)
+    private LibraryStore store = null;
+    private int row = -1;
+    private Map<String, String> rowView = null; // What getAttributes returns while the game is in a store
+
+    // Languages of the game as a Languages mask, and the "languages" text it was computed from
+    // The mask is recomputed whenever the text is replaced (edits, merges), which is checked by reference
+    private long languages = 0;
+    private String languagesText = null;
+
+    // TitleCollator key of the title, and the title it was folded from, checked by reference like languagesText
+    private byte[] titleKey = null;
+    private String titleKeyText = null;
+
+    // Counts the changes made to the attributes through the game (updateAttribute, getAttributes while in the library)
+    private int version = 0;
+
+    // Texts built from the attributes (toString, toDisplayString, getSearchText), kept while version is textVersion
+    // Only kept while the game is in the library, since a game's own map can be changed without the game knowing
+    private int textVersion = -1;
+    private String description = null;
+    private String displayText = null;
+    private String searchText = null;
+
 
     /**
      * Constructor that initializes the Game object with a set of attributes.
@@ -48,6 +94,90 @@ public class Game {
         this.attributes = attributes; // Store the passed attributes in the instance's attributes map
     }
 
+    /**
+     * Constructor used by the importer, which already knows the game's language mask from the columns it read.
+     *
+     * @param attributes A map containing game attributes (e.g., platform, hours played).
+     * @param languages The mask of the languages in the "languages" attribute (see Languages.maskOf).
+     */
+    public Game(Map<String, String> attributes, long languages) {
+        this.attributes = attributes;
+        this.languages = languages;
+        this.languagesText = attributes.get("languages");
+    }
+
+    /**
+     * Constructor used by the importer for games read back from an export of the library, which keep their ids.
+     *
+     * @param attributes A map containing game attributes (e.g., platform, hours played).
+     * @param languages The mask of the languages in the "languages" attribute (see Languages.maskOf).
+     * @param id The id saved with the game (see parseId), or 0 to give the game a new one.
+     */
+    public Game(Map<String, String> attributes, long languages, long id) {
+        this(attributes, languages);
+        if (id != 0) {
+            this.id = id;
+        }
+    }
+
+
+    /**
+     * Constructor for a view of a row in a frozen copy of the library's store (see view).
+     */
+    private Game(LibraryStore store, int row, long id) {
+        this.attributes = null;
+        this.store = store;
+        this.row = row;
+        this.id = id;
+    }
+
+
+    /**
+     * Retrieves the stable id of the game.
+     *
+     * @return The id, which never changes while the game is in the library.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gives the game a new id.
+     * Used by LibraryIndex when a game enters the library with the id of a game already in it (e.g., a copy
+     * imported from the same export).
+     */
+    void renewId() {
+        id = newId();
+    }
+
+    /**
+     * Reads an id saved in the ID_KEY column of an export.
+     *
+     * @param value The value of the column, or null if the file has no such column.
+     * @return The id, or 0 if the value isn't one.
+     */
+    public static long parseId(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Helper method to make a new id: a random positive number, never 0.
+     */
+    private static long newId() {
+        long newId;
+        do {
+            newId = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+        } while (newId == 0);
+        return newId;
+    }
+
 
     /**
      * Retrieves the value of a specific attribute (singular)from the game.
@@ -58,7 +188,89 @@ public class Game {
      * @return The value associated with the provided key, or "N/A" if not found.
      */
     public String getAttribute(String key) {
-        return attributes.getOrDefault(key.trim().toLowerCase(), "N/A"); // If it can't find a key it'll default to N/A
+        if (store == null) {
+            return attributes.getOrDefault(key.trim().toLowerCase(), "N/A"); // If it can't find a key it'll default to N/A
+        }
+        int id = AttributeKeys.find(key); // Names that were never registered can't be in the store
+        String value = (id < 0) ? null : store.get(row, id);
+        return (value == null) ? "N/A" : value;
+    }
+
+    /**
+     * Retrieves the value of an attribute by its id in AttributeKeys.
+     * Used when the same attribute is read from many games (sorting, filtering, exporting), so the key
+     * is normalized once by AttributeKeys.idOf instead of once per game.
+     *
+     * @param id The id of the attribute (e.g., AttributeKeys.PLATFORM).
+     * @return The value associated with the attribute, or "N/A" if not found.
+     */
+    public String getAttribute(int id) {
+        if (store == null) {
+            return attributes.getOrDefault(AttributeKeys.name(id), "N/A");
+        }
+        String value = store.get(row, id);
+        return (value == null) ? "N/A" : value;
+    }
+
+
+    /**
+     * Retrieves the value of an attribute as a number.
+     * Games in the library read the number their store parsed when the value was set, so sorting and
+     * filtering by a numeric attribute never parse text.
+     *
+     * @param id The id of the attribute (e.g., AttributeKeys.HOURS_PLAYED).
+     * @return The value as a number, or NaN if the game has no value or it isn't a number.
+     */
+    public double getNumber(int id) {
+        if (store == null) {
+            return parseNumber(attributes.get(AttributeKeys.name(id)));
+        }
+        return store.number(row, id);
+    }
+
+    /**
+     * Retrieves the value of an attribute as a date, parsed like parseDate.
+     * Games in the library read the date their store parsed when the value was set.
+     *
+     * @param id The id of the attribute (e.g., AttributeKeys.RELEASE_DATE).
+     * @return The date as a number that sorts like the date (e.g., 20210520), or NO_DATE if the game has no value
+     *         or it isn't a date.
+     */
+    public int getDate(int id) {
+        if (store == null) {
+            return parseDate(attributes.get(AttributeKeys.name(id)));
+        }
+        return store.date(row, id);
+    }
+
+    /**
+     * Checks whether the value of an attribute fits the type inferred for the attribute (see LibraryStore.type),
+     * e.g. that a release date is a date. A game that isn't in the library only has its own value to go by, so any
+     * value but an empty one or "N/A" fits.
+     *
+     * @param id The id of the attribute.
+     * @return true if the game has a value that fits, false if it has none or it doesn't fit.
+     */
+    public boolean isValid(int id) {
+        if (store == null) {
+            String value = attributes.get(AttributeKeys.name(id));
+            return LibraryStore.kindOf(value, parseNumber(value), parseDate(value)) != 0;
+        }
+        return store.isValid(row, id);
+    }
+
+    /**
+     * Checks whether the value of an attribute sets a flag (see FeatureFlags.isSet).
+     * Games in the library read what their store found when the value was set.
+     *
+     * @param id The id of the attribute (e.g., the id of "multiplayer").
+     * @return true if the game has a value that isn't empty, "N/A", or a "no".
+     */
+    public boolean isFlagged(int id) {
+        if (store == null) {
+            return FeatureFlags.isSet(attributes.get(AttributeKeys.name(id)));
+        }
+        return store.isFlagged(row, id);
     }
 
 
@@ -70,7 +282,77 @@ public class Game {
      * @return A map containing all attribute key-value pairs for the game.
      */
     public Map<String, String> getAttributes() {// I had been using it to print the k/v pairs to console while I was debugging
-        return attributes;
+        if (store == null) {
+            return attributes;
+        }
+        if (rowView == null) {
+            rowView = new RowView();
+        }
+        return rowView;
+    }
+
+    /**
+     * Retrieves the version of the game's attributes, which changes whenever one of them is set or removed
+     * (through updateAttribute, or the map getAttributes returns while the game is in the library).
+     *
+     * @return The version, equal to an earlier one only if nothing changed in between.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The game's row in the library's store, or -1 while it isn't in the library.
+     */
+    int getRow() {
+        return row;
+    }
+
+    /**
+     * Makes a game that reads a row of a frozen copy of the library's store (see LibraryStore.freeze), the way a game
+     * in the library reads its row. The view can't be changed. Used by LibraryHistory's snapshots.
+     *
+     * @param frozen A frozen copy of the library's store.
+     * @param row The game's row in it.
+     * @param id The game's id.
+     * @return The view.
+     */
+    static Game view(LibraryStore frozen, int row, long id) {
+        return new Game(frozen, row, id);
+    }
+
+    /**
+     * Moves the game's attributes into a row of the library's store.
+     * Used by LibraryIndex when the game is added to the library.
+     *
+     * @param libraryStore The store of the library.
+     */
+    void attachTo(LibraryStore libraryStore) {
+        if (store != null) {
+            return; // Already in a library
+        }
+        row = libraryStore.addRow(attributes, getLanguages());
+        store = libraryStore;
+        version++; // getAttributes lists the attributes in id order from now on
+        attributes = null; // The store has the only copy now
+    }
+
+    /**
+     * Moves the game's attributes out of the library's store, back into a map of its own.
+     * Used by LibraryIndex when the game is removed from the library.
+     */
+    void detach() {
+        if (store == null) {
+            return;
+        }
+        Map<String, String> own = new LinkedHashMap<>(getAttributes());
+        languages = store.getLanguages(row);
+        languagesText = own.get("languages");
+        store.freeRow(row);
+        store = null;
+        row = -1;
+        attributes = own;
+        version++;
     }
 
 
@@ -84,7 +366,7 @@ public class Game {
      */
     public String getPlatform() {
         // Check if the 'platform' attribute is present and not empty
-        String platform = getAttribute("platform");
+        String platform = getAttribute(AttributeKeys.PLATFORM);
         if (!platform.equals("N/A") && !platform.isEmpty()) {
             return platform.trim();
         }
@@ -99,13 +381,42 @@ public class Game {
     }
 
 
+    /**
+     * Retrieves the languages the game supports as a bitmask, so filters can test for a language with a single AND.
+     *
+     * @return The mask of the languages mentioned in the "languages" attribute (see Languages), 0 if there are none.
+     */
+    public long getLanguages() {
+        if (store != null) {
+            return store.getLanguages(row); // Kept up to date by the store
+        }
+        String text = attributes.get("languages");
+        if (text != languagesText) { // The text was replaced since the mask was computed
+            languages = Languages.maskOf(text);
+            languagesText = text;
+        }
+        return languages;
+    }
+
     /**
      * Provides a string representation of the game, summarizing all attributes except for those marked "N/A" or with the key "title".
+     * Games in the library build it once per version of their attributes (see getVersion).
      * 
      * @return A formatted string summarizing the game's attributes.
      */
     @Override
     public String toString() {
+        clearStaleTexts();
+        if (description == null) {
+            description = describe();
+        }
+        return description;
+    }
+
+    /**
+     * Builds the string toString returns.
+     */
+    private String describe() {
         StringBuilder result = new StringBuilder();
 
         // Define the order of keys to display first, if they are present in the attributes
@@ -113,7 +424,7 @@ public class Game {
 
         // First, add the preferred keys in the specified order if they exist and are valid
         for (String key : preferredKeys) {
-            String value = attributes.getOrDefault(key, "N/A");
+            String value = getAttribute(key);
             if (!value.equals("N/A") && !value.isEmpty()) {
                 String formattedKey = capitalizeAndFormatKey(key);
                 if (key.equalsIgnoreCase("hours_played")) {
@@ -124,7 +435,7 @@ public class Game {
         }
 
         // Next, add any remaining keys that are not part of the preferredKeys list
-        for (Map.Entry<String, String> entry : attributes.entrySet()) {
+        for (Map.Entry<String, String> entry : getAttributes().entrySet()) {
             String key = entry.getKey();
             String value = entry.getValue();
 
@@ -148,15 +459,47 @@ public class Game {
     /**
      * Returns a string representation of the game for display purposes in the Edit Tab.
      * Prepends the 'game' attribute value to the standard toString() output.
+     * Games in the library build it once per version of their attributes, like toString.
      *
      * @return A formatted string for displaying the game.
      */
     public String toDisplayString() {
-        String gameName = attributes.get("title");
-        if (gameName == null || gameName.isEmpty()) {
-            gameName = "Unknown Game";
+        clearStaleTexts();
+        if (displayText == null) {
+            String gameName = getAttributes().get("title");
+            if (gameName == null || gameName.isEmpty()) {
+                gameName = "Unknown Game";
+            }
+            displayText = "Title: "+ gameName + " | " + this.toString();
+        }
+        return displayText;
+    }
+
+    /**
+     * Returns the text searches look for keywords in: the game's title and its toString description, lower-cased
+     * and trimmed, on two lines. Games in the library build it once per version of their attributes, like toString,
+     * so a search over the library only folds the games that changed since the last one.
+     *
+     * @return The search text of the game.
+     */
+    public String getSearchText() {
+        clearStaleTexts();
+        if (searchText == null) {
+            searchText = getAttribute(AttributeKeys.TITLE).toLowerCase().trim() + "\n" + this.toString().toLowerCase().trim();
+        }
+        return searchText;
+    }
+
+    /**
+     * Drops the cached texts if the attributes changed since they were built, or if the game isn't in the library.
+     */
+    private void clearStaleTexts() {
+        if (textVersion != version || store == null) {
+            description = null;
+            displayText = null;
+            searchText = null;
+            textVersion = version;
         }
-        return "Title: "+ gameName + " | " + this.toString();
     }
 
     /**
@@ -214,184 +557,227 @@ public class Game {
      */
     public void updateAttribute(String key, String value) {
         if (value == null || value.trim().isEmpty()) {
-            attributes.remove(key);
+            getAttributes().remove(key);
         } else {
-            attributes.put(Normalizer.normalizeKey(key), value.trim());
+            getAttributes().put(AttributeKeys.intern(Normalizer.normalizeKey(key)), value.trim());
         }
+        version++;
     }
 
-    /******** SORTING IMPLEMENTATION **************/
-
     /**
-     * This method gets the title value of the game
-     * @return String representing the title of the game
+     * The map getAttributes returns while the game is in the library: reads and writes go straight to the game's row
+     * in the store, with attributes in attribute id order. If the game leaves the library, the view keeps working on
+     * the game's own map instead.
      */
-    public String getTitle() {
-        return getAttribute("title");
-    }
+    private final class RowView extends AbstractMap<String, String> {
+        @Override
+        public String get(Object key) {
+            if (store == null) {
+                return attributes.get(key);
+            }
+            int id = (key instanceof String) ? AttributeKeys.find((String) key) : -1;
+            return (id < 0) ? null : store.get(row, id);
+        }
 
-    /**
-     * This method gets the title value of the game without quotes or extra punctuation at the beginning
-     * ONLY USE THIS WITH THE COMPARATOR
-     * @return String representing the title of the game without other characters
-     */
-    public String getTitleWithoutQuote() {
-        String title = getAttribute("title");
-        int startIndex = 0;
-        for(int i = 0; i < title.length(); i++) {
-            char c = title.charAt(i);
-            if(Character.isLetterOrDigit(c)) {
-                startIndex = i;
-                break;
+        @Override
+        public boolean containsKey(Object key) {
+            if (store == null) {
+                return attributes.containsKey(key);
             }
+            int id = (key instanceof String) ? AttributeKeys.find((String) key) : -1;
+            return id >= 0 && store.has(row, id);
+        }
+
+        @Override
+        public String put(String key, String value) {
+            version++;
+            return (store == null) ? attributes.put(key, value) : store.set(row, AttributeKeys.idOf(key), value);
+        }
+
+        @Override
+        public String remove(Object key) {
+            version++;
+            if (store == null) {
+                return attributes.remove(key);
+            }
+            int id = (key instanceof String) ? AttributeKeys.find((String) key) : -1;
+            return (id < 0) ? null : store.set(row, id, null);
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            return (store == null) ? attributes.entrySet() : new RowEntries();
         }
-        return title.substring(startIndex);
     }
 
     /**
-     * This defines a comparator to sort Game objects by their date.
-     * @param isAscending specifies if the order of sorting is ascending or not (descending)
-     * @return comparator that compares Game objects by their date
+     * The attributes of the game's row in the store, as map entries.
      */
-    public static final Comparator<Game> byDate (boolean isAscending) {
-        return new Comparator<Game>() {
-        // YYYY-MM-DATE  ex: attributes.put("release_date", "2021-05-20"); 
-            @Override
-            public int compare(Game game1, Game game2) {
+    private final class RowEntries extends AbstractSet<Map.Entry<String, String>> {
+        @Override
+        public Iterator<Map.Entry<String, String>> iterator() {
+            return new Iterator<Map.Entry<String, String>>() {
+                private int next = advance(0); // Id of the next attribute the row has
+                private int last = -1;
+
+                private int advance(int id) {
+                    int limit = store.columnLimit();
+                    while (id < limit && !store.has(row, id)) {
+                        id++;
+                    }
+                    return id;
+                }
 
-                String date1 = game1.getAttribute("release_date");
-                String date2 = game2.getAttribute("release_date");
-                boolean date1NotValid = (date1.equals("N/A") || date1.length() != 10);
-                boolean date2NotValid = (date2.equals("N/A") || date2.length() != 10);
+                @Override
+                public boolean hasNext() {
+                    return next < store.columnLimit();
+                }
 
-                if(date1NotValid || date2NotValid) {
-                    if(date1NotValid && date2NotValid) {
-                        return 0; //both invalid, so equal
-                    } else if (date1NotValid) {
-                        return isAscending ? 1 : -1; 
-                        //if ascending, all invalid date goes to end
-                        //if descending, all invalid dates go to start 
-                        // due to nature of Collections.reversed() 
-                    } else {
-                        return isAscending ? -1 : 1;
+                @Override
+                public Map.Entry<String, String> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
                     }
+                    last = next;
+                    next = advance(next + 1);
+                    return new AbstractMap.SimpleImmutableEntry<>(AttributeKeys.name(last), store.get(row, last));
                 }
 
-                int year1 = Integer.parseInt(date1.substring(0, 4));
-                int month1 = Integer.parseInt(date1.substring(5, 7));
-                int day1 =  Integer.parseInt(date1.substring(8));
-
-                int year2 = Integer.parseInt(date2.substring(0, 4));
-                int month2 = Integer.parseInt(date2.substring(5, 7));
-                int day2 =  Integer.parseInt(date2.substring(8));
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    store.set(row, last, null);
+                    version++;
+                    last = -1;
+                }
+            };
+        }
 
-                if(year1 != year2) {
-                    return Integer.compare(year1, year2);
-                } else if (month1 != month2) {
-                    return Integer.compare(month1, month2);
-                } 
-                return Integer.compare(day1, day2);
+        @Override
+        public int size() {
+            int size = 0;
+            for (int id = 0; id < store.columnLimit(); id++) {
+                if (store.has(row, id)) {
+                    size++;
+                }
             }
-        };
+            return size;
+        }
     }
 
+    /******** SORTING IMPLEMENTATION **************/
+
     /**
-     * This defines a comparator to sort Game objects by a custom field that is a string/word
-     * @param isAscending specifies if the order of sorting is ascending or not (descending)
-     * @return comparator that compares Game objects by a custom field
+     * This method gets the title value of the game
+     * @return String representing the title of the game
      */
-    public static final Comparator<Game> byFieldString (boolean isAscending, String fieldName) {
-        return new Comparator<Game>() {
-            @Override
-            public int compare(Game game1, Game game2) {
-                String field1 = game1.getAttribute(fieldName);
-                String field2 = game2.getAttribute(fieldName);
-                
-                boolean field1NotValid = (field1.equals("N/A") || field1.isEmpty());
-                boolean field2NotValid = (field2.equals("N/A") || field2.isEmpty());
-
-                System.out.println("field1 is " + field1);
-                System.out.println("field2 is " + field2);
-
-                if(field1NotValid || field2NotValid) {
-                    if(field1NotValid && field2NotValid) {
-                        return 0;
-                    }
-                    else if(field1NotValid) {
-                        return isAscending ? 1 : -1; 
-                        //invalid & valid --> valid & invalid
-                        //if ascending, invalid date moved to end (positive value) 
-                        //if descending, invalid dates moved to start (negative value)
-                        // due to nature of Collections.reversed()          
-                    }  else { //field2Not valid
-                        return isAscending ? -1 : 1;                        
-                        //valid & invalid --> valid & invalid
-                    }
-                } 
-                return field1.compareTo(field2);
-            }
-        };
+    public String getTitle() {
+        return getAttribute(AttributeKeys.TITLE);
     }
 
     /**
-     * This method attempts to parse the double.
-     * @param number representing double we want to parse.
-     * @return double representing if it parsed. Returns negative infinity upon error.
+     * This method gets the collation key of the game's title (see TitleCollator), which GameSorter sorts titles
+     * by. Games in the library read the key their store folded when the title was set.
+     * @return the key of the title, or of "N/A" if the game has none
      */
-    public static double parseDouble(String number) {
-        try {
-            return Double.parseDouble(number);
-        } catch (NumberFormatException e) {
-            return Double.NEGATIVE_INFINITY;
+    public byte[] getTitleKey() {
+        if (store != null) {
+            return store.titleKey(row);
         }
+        String title = attributes.get("title");
+        if (titleKey == null || title != titleKeyText) { // The title was replaced since the key was folded
+            titleKey = TitleCollator.keyOf((title == null) ? "N/A" : title);
+            titleKeyText = title;
+        }
+        return titleKey;
     }
 
     /**
-     * This defines a comparator to sort Game objects by a custom field that is a number
-     * @param isAscending specifies if the order of sorting is ascending or not (descending)
-     * @return comparator that compares Game objects by the custom field
+     * This method parses a number once for a LibraryStore, getNumber, or the SchemaRegistry statistics, marking values
+     * that aren't numbers with NaN. Only values shaped like [+-]digits[.digits][e[+-]digits] are handed to
+     * Double.parseDouble, so text and dates like "2021-05-20" are turned down without the cost of an exception.
+     * @param number representing the value we want to parse, or null. Surrounding spaces are ignored.
+     * @return double representing the number, or NaN if the value isn't a finite number.
      */
-    public static final Comparator<Game> byFieldDouble (boolean isAscending, String fieldName) {
-        return new Comparator<Game>() {
-            @Override
-            public int compare(Game game1, Game game2) {                
-                double field1 = parseDouble(game1.getAttribute(fieldName));
-                double field2 = parseDouble(game2.getAttribute(fieldName));
-                double negInf = Double.NEGATIVE_INFINITY; 
-
-                //if double could not be parsed (returns negative infinity)
-                //field will be moved to the end
-            
-                // System.out.print(fieldName + " of game1= " + field1 + "vs game2= " + field2);
-                if(field1 == negInf || field2 == negInf) {
-                    if(field1 == negInf && field2 == negInf) {
-                        return 0;
-                    }
-                    else if(field1 == negInf) {
-                        return isAscending ? 1 : -1; 
-                        //if ascending, all invalid date goes to end
-                        //if descending, all invalid dates go to start 
-                        // so when Collections.reversed() is called for descending, the invalid dates
-                        // end up at the end 
-                    }
-                    else {
-                        // System.out.println( "will return (true = -1)" + isAscending);
-                        return isAscending ? -1 : 1;
-                    }
-                }
-                return Double.compare(field1, field2);
+    public static double parseNumber(String number) {
+        if (number == null) {
+            return Double.NaN;
+        }
+        String value = number.trim();
+        int length = value.length();
+        int i = 0;
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        boolean point = false;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
             }
-        };
+            int start = i;
+            while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+                i++;
+            }
+            if (i == start) {
+                return Double.NaN;
+            }
+        }
+        if (i != length) {
+            return Double.NaN;
+        }
+        double parsed = Double.parseDouble(value); // Can't throw for a value of this shape
+        return Double.isFinite(parsed) ? parsed : Double.NaN;
     }
 
     /**
-     * This defines a comparator to sort Game objects by their title
+     * This method parses a date of the form YYYY-MM-DD into a number that sorts like the date: YYYYMMDD.
+     * Like the date sort always has, it only looks at the digits, so "2021/05/20" is read the same way.
+     * @param date representing the value we want to parse, or null.
+     * @return int representing the date (e.g., 20210520), or NO_DATE if the value isn't a date.
      */
-    public static final Comparator<Game> byTitle = Comparator.comparing(Game::getTitleWithoutQuote);
-    
+    public static int parseDate(String date) {
+        if (date == null || date.length() != 10) {
+            return NO_DATE;
+        }
+        int year = parseDigits(date, 0, 4);
+        int month = parseDigits(date, 5, 7);
+        int day = parseDigits(date, 8, 10);
+        if (year < 0 || month < 0 || day < 0) {
+            return NO_DATE;
+        }
+        return year * 10000 + month * 100 + day;
+    }
+
     /**
-     * This defines a comparator to sort Game objects by their platform name
+     * Helper method to read the digits between start and end of a value.
+     * @return int the digits stand for, or -1 if any character isn't a digit.
      */
-    public static final Comparator<Game> byPlatform = Comparator.comparing(Game::getPlatform);
-
+    private static int parseDigits(String value, int start, int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
 }
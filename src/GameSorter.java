@@ -0,0 +1,244 @@
+/**
+ * The GameSorter class sorts lists of games for the sort panel. Instead of handing Collections.sort a comparator
+ * that reads (and re-parses, and re-trims) both games' attributes on every one of the n log n comparisons, it reads
+ * each game's sort key once into a SortKey, sorts the keys, and puts the games back in the keys' order.
+ *
+ * Keys are compared as primitives: a number (see Game.getNumber), a date (see Game.getDate), a yes or no (see
+ * Game.isFlagged), a title's collation key (see Game.getTitleKey), or text. sortByValue picks the number, date, or
+ * yes/no key from the type LibraryStore inferred for the attribute. Title and text keys also carry their first
+ * bytes or characters packed into a long, so most comparisons are one unsigned comparison of two longs and the whole
+ * keys are only compared when two keys start alike.
+ *
+ * This class is the one place the sort orders of the library are defined (one sortBy method per kind of field, each
+ * reversed when descending):
+ * - Games without a usable value ("N/A", empty, not a number, not a date, not a yes or no) go last in both
+ *   directions.
+ * - Games with equal keys keep their order from the list, since the sort is stable.
+ * Lists of PARALLEL_THRESHOLD games or more are sorted on several cores with Arrays.parallelSort.
+ *
+ * Example of how this class works:
+ *     int hours = AttributeKeys.find("hours_played");
+ *     GameSorter.sortByValue(games, hours, libraryIndex.getStore().type(hours), false);   // Most played first
+ *
+ * @see Game
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+public class GameSorter {
+    private static final int PARALLEL_THRESHOLD = 8192; // Below this many games, splitting the sort costs more than it saves
+
+    private static final Comparator<SortKey> NUMBER_ORDER = (a, b) -> Double.compare(a.number, b.number);
+    private static final Comparator<SortKey> TITLE_ORDER = (a, b) -> {
+        int byPrefix = Long.compareUnsigned(a.prefix, b.prefix);
+        return (byPrefix != 0) ? byPrefix : TitleCollator.compare(a.title, b.title);
+    };
+    private static final Comparator<SortKey> TEXT_ORDER = (a, b) -> {
+        int byPrefix = Long.compareUnsigned(a.prefix, b.prefix);
+        return (byPrefix != 0) ? byPrefix : a.text.compareTo(b.text);
+    };
+
+
+    /**
+     * Sorts games by the collation keys of their titles (see TitleCollator), e.g. "Halo 2" before "Halo 10".
+     *
+     * @param games The games to sort, in place.
+     * @param ascending Whether to sort from A to Z.
+     */
+    public static void sortByTitle(List<Game> games, boolean ascending) {
+        SortKey[] keys = new SortKey[games.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Game game = games.get(i);
+            keys[i] = new SortKey(game, false);
+            keys[i].title = game.getTitleKey();
+            keys[i].prefix = prefix(keys[i].title);
+        }
+        sort(games, keys, ascending ? TITLE_ORDER : TITLE_ORDER.reversed());
+    }
+
+    /**
+     * Sorts games by their platform name.
+     *
+     * @param games The games to sort, in place.
+     * @param ascending Whether to sort from A to Z.
+     */
+    public static void sortByPlatform(List<Game> games, boolean ascending) {
+        sortByText(games, Game::getPlatform, false, ascending);
+    }
+
+    /**
+     * Sorts games by their release date. Games without a date go last.
+     *
+     * @param games The games to sort, in place.
+     * @param ascending Whether to sort from oldest to newest.
+     */
+    public static void sortByDate(List<Game> games, boolean ascending) {
+        sortByDate(games, AttributeKeys.RELEASE_DATE, ascending);
+    }
+
+    /**
+     * Sorts games by the date value of an attribute (see Game.getDate). Games whose value isn't a date go last.
+     *
+     * @param games The games to sort, in place.
+     * @param attributeId The AttributeKeys id of the attribute.
+     * @param ascending Whether to sort from oldest to newest.
+     */
+    public static void sortByDate(List<Game> games, int attributeId, boolean ascending) {
+        SortKey[] keys = new SortKey[games.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Game game = games.get(i);
+            int date = game.getDate(attributeId);
+            keys[i] = new SortKey(game, date == Game.NO_DATE);
+            keys[i].number = date;
+        }
+        sort(games, keys, ascending ? NUMBER_ORDER : NUMBER_ORDER.reversed());
+    }
+
+    /**
+     * Sorts games by the text of an attribute. Games without a value go last.
+     *
+     * @param games The games to sort, in place.
+     * @param attributeId The AttributeKeys id of the attribute.
+     * @param ascending Whether to sort from A to Z.
+     */
+    public static void sortByText(List<Game> games, int attributeId, boolean ascending) {
+        sortByText(games, game -> game.getAttribute(attributeId), true, ascending);
+    }
+
+    /**
+     * Sorts games by the numeric value of an attribute (see Game.getNumber). Games whose value isn't a number go
+     * last.
+     *
+     * @param games The games to sort, in place.
+     * @param attributeId The AttributeKeys id of the attribute.
+     * @param ascending Whether to sort from smallest to largest.
+     */
+    public static void sortByNumber(List<Game> games, int attributeId, boolean ascending) {
+        SortKey[] keys = new SortKey[games.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Game game = games.get(i);
+            double number = game.getNumber(attributeId);
+            keys[i] = new SortKey(game, Double.isNaN(number));
+            keys[i].number = number;
+        }
+        sort(games, keys, ascending ? NUMBER_ORDER : NUMBER_ORDER.reversed());
+    }
+
+    /**
+     * Sorts games by the yes/no value of an attribute (see Game.isFlagged), "no" first when ascending. Games whose
+     * value isn't a yes or no (see Game.isValid) go last.
+     *
+     * @param games The games to sort, in place.
+     * @param attributeId The AttributeKeys id of a BOOLEAN attribute (see LibraryStore.type).
+     * @param ascending Whether to sort the "no" values first.
+     */
+    public static void sortByFlag(List<Game> games, int attributeId, boolean ascending) {
+        SortKey[] keys = new SortKey[games.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Game game = games.get(i);
+            keys[i] = new SortKey(game, !game.isValid(attributeId));
+            keys[i].number = game.isFlagged(attributeId) ? 1 : 0;
+        }
+        sort(games, keys, ascending ? NUMBER_ORDER : NUMBER_ORDER.reversed());
+    }
+
+    /**
+     * Sorts games by the parsed value of an attribute, read as the attribute's type (see LibraryStore.type): dates
+     * by date, yes/no values by flag, and numbers, or the numbers among text, by number.
+     *
+     * @param games The games to sort, in place.
+     * @param attributeId The AttributeKeys id of the attribute.
+     * @param type The attribute's type.
+     * @param ascending Whether to sort from smallest to largest.
+     */
+    public static void sortByValue(List<Game> games, int attributeId, LibraryStore.Type type, boolean ascending) {
+        if (type == LibraryStore.Type.DATE) {
+            sortByDate(games, attributeId, ascending);
+        } else if (type == LibraryStore.Type.BOOLEAN) {
+            sortByFlag(games, attributeId, ascending);
+        } else {
+            sortByNumber(games, attributeId, ascending);
+        }
+    }
+
+
+    /**
+     * Sorts games by a text key read once per game.
+     *
+     * @param missingLast Whether "N/A" and empty keys go last, as for custom fields.
+     */
+    private static void sortByText(List<Game> games, Function<Game, String> key, boolean missingLast, boolean ascending) {
+        SortKey[] keys = new SortKey[games.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Game game = games.get(i);
+            String text = key.apply(game);
+            keys[i] = new SortKey(game, missingLast && (text.equals("N/A") || text.isEmpty()));
+            keys[i].text = text;
+            keys[i].prefix = prefix(text);
+        }
+        sort(games, keys, ascending ? TEXT_ORDER : TEXT_ORDER.reversed());
+    }
+
+    /**
+     * Sorts the keys, missing keys last, then writes the games back into the list in the keys' order.
+     */
+    private static void sort(List<Game> games, SortKey[] keys, Comparator<SortKey> order) {
+        Comparator<SortKey> comparator = (a, b) -> (a.missing != b.missing) ? (a.missing ? 1 : -1) : order.compare(a, b);
+        if (keys.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(keys, comparator); // Stable, like Arrays.sort
+        } else {
+            Arrays.sort(keys, comparator);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            games.set(i, keys[i].game);
+        }
+    }
+
+    /**
+     * Packs the first four characters of a text into a long that compares (unsigned) like the characters do.
+     * Shorter texts are padded with zeros, which sort before any character except the NUL character, where compareTo decides.
+     */
+    private static long prefix(String text) {
+        long prefix = 0;
+        for (int i = 0; i < 4; i++) {
+            prefix = (prefix << 16) | ((i < text.length()) ? text.charAt(i) : 0);
+        }
+        return prefix;
+    }
+
+    /**
+     * Packs the first eight bytes of a title key into a long that compares (unsigned) like the bytes do.
+     * Shorter keys are padded with zeros, and keys that tie on the padding are told apart by TitleCollator.compare.
+     */
+    private static long prefix(byte[] key) {
+        long prefix = 0;
+        for (int i = 0; i < 8; i++) {
+            prefix = (prefix << 8) | ((i < key.length) ? (key[i] & 0xFF) : 0);
+        }
+        return prefix;
+    }
+
+
+    /**
+     * A game and its sort key, read once before sorting.
+     */
+    private static final class SortKey {
+        final Game game;
+        final boolean missing; // No usable value, goes last
+        double number; // Numeric and date keys (dates fit a double exactly)
+        byte[] title; // Title keys
+        String text; // Text keys
+        long prefix; // First bytes of title or characters of text, see prefix
+
+        SortKey(Game game, boolean missing) {
+            this.game = game;
+            this.missing = missing;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * The HeaderCache class remembers how headers were classified by AliasClassifier, so the headers of an export that
+ * was imported before (which are the same every time for a given store) never have to be classified again.
+ *
+ * For each raw header the cache keeps whether the column can be the game's title and the normalized attribute it
+ * feeds otherwise, which is also what decides whether its values are merged (see Normalizer.ColumnPlan). The cache
+ * holds at most CAPACITY headers and drops the least recently used one when it is full. It is shared by every import,
+ * including the threads of a parallel import, so all of its methods are synchronized.
+ *
+ * The cache is saved to the "GameLoom Exports" folder after imports and read back the next time GameLoom starts, so
+ * repeated imports skip classification entirely. Saving can be turned off with -Dgameloom.headerCache.persist=false.
+ * The saved cache records which aliases it was built with, and is ignored if the aliases file has changed since.
+ *
+ * Example of how this class works:
+ *     HeaderCache.Classification header = HeaderCache.getActive().lookup("hours played");
+ *     String attribute = header.keyFor(true);   // "hours_played"
+ *
+ * @see AliasClassifier
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class HeaderCache {
+    private static final Path CACHE_FILE = Paths.get(System.getProperty("user.home"), "GameLoom Exports", "GameLoomHeaderCache.txt");
+    private static final boolean PERSIST = !"false".equalsIgnoreCase(System.getProperty("gameloom.headerCache.persist"));
+    private static final int CAPACITY = 4096; // Far more headers than a user's exports have, but still a small file
+    private static volatile HeaderCache active; // Cache used by imports, loaded on first use
+
+    private final Path file; // Where the cache is saved, or null if it is only kept in memory
+    private AliasClassifier classifier; // The classifier the cached entries came from
+    private boolean changed = false; // Whether entries were added since the cache was loaded or saved
+    private final LinkedHashMap<String, Classification> entries = new LinkedHashMap<>(64, 0.75f, true) { // Access order
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Classification> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+
+    /**
+     * How a header is classified.
+     */
+    public static final class Classification {
+        private final boolean titleCandidate; // Whether the column is the title while the row has none yet
+        private final String normalizedKey; // The attribute the column feeds otherwise, or null if it keeps its own name
+
+        private Classification(boolean titleCandidate, String normalizedKey) {
+            this.titleCandidate = titleCandidate;
+            this.normalizedKey = normalizedKey;
+        }
+
+        /**
+         * @return true if the column becomes the title when no earlier column of the row has set it.
+         */
+        public boolean isTitleCandidate() {
+            return titleCandidate;
+        }
+
+        /**
+         * @param titleOpen Whether the row's title still hasn't been found.
+         * @return The normalized attribute the column feeds, or null if it has no normalized equivalent.
+         */
+        public String keyFor(boolean titleOpen) {
+            return (titleOpen && titleCandidate) ? "title" : normalizedKey;
+        }
+    }
+
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param file Where to save the cache, or null to keep it in memory only.
+     */
+    public HeaderCache(Path file) {
+        this.file = file;
+    }
+
+
+    /**
+     * Returns the cache used by imports, loading it from the cache file the first time (unless persistence is off).
+     *
+     * @return The active cache.
+     */
+    public static HeaderCache getActive() {
+        HeaderCache cache = active;
+        if (cache == null) {
+            synchronized (HeaderCache.class) {
+                if (active == null) {
+                    active = PERSIST ? load(CACHE_FILE) : new HeaderCache(null);
+                }
+                cache = active;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Loads a cache from a file. A missing or unreadable file, or one built with other aliases, gives an empty cache.
+     *
+     * @param file The cache file.
+     * @return The loaded cache.
+     */
+    public static HeaderCache load(Path file) {
+        HeaderCache cache = new HeaderCache(file);
+        AliasClassifier classifier = AliasClassifier.getActive();
+        cache.classifier = classifier;
+        if (!Files.exists(file)) {
+            return cache;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String signature = reader.readLine();
+            if (signature == null || !signature.equals("aliases\t" + classifier.signature())) {
+                return cache; // Built with other aliases, so its classifications may be wrong
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length == 3) {
+                    String normalizedKey = fields[2].isEmpty() ? null : fields[2];
+                    cache.entries.put(fields[0], new Classification(fields[1].equals("1"), normalizedKey));
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+
+    /**
+     * Returns how a header is classified, classifying it with the active AliasClassifier if it isn't cached yet.
+     *
+     * @param header A raw header, as it appears in the file (after trimming and lower-casing).
+     * @return The header's classification.
+     */
+    public synchronized Classification lookup(String header) {
+        AliasClassifier current = AliasClassifier.getActive();
+        if (current != classifier) { // The aliases were reloaded, so every entry may be out of date
+            entries.clear();
+            classifier = current;
+            changed = true;
+        }
+        Classification classification = entries.get(header);
+        if (classification == null) {
+            boolean titleCandidate = "title".equals(current.classify(header, true));
+            classification = new Classification(titleCandidate, current.classify(header, false));
+            entries.put(header, classification);
+            changed = true;
+        }
+        return classification;
+    }
+
+    /**
+     * @return How many headers are cached.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Saves the cache if headers were added since it was loaded or last saved. Does nothing for an in-memory cache.
+     * The file is replaced in one step, so a crash never leaves half a cache behind.
+     */
+    public synchronized void saveIfChanged() {
+        if (file == null || !changed) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write("aliases\t" + classifier.signature());
+                writer.newLine();
+                for (Map.Entry<String, Classification> entry : entries.entrySet()) { // Least recently used first
+                    String header = entry.getKey();
+                    if (header.indexOf('\t') >= 0 || header.indexOf('\n') >= 0 || header.indexOf('\r') >= 0) {
+                        continue; // Can't be written on one line; it will just be classified again next time
+                    }
+                    Classification classification = entry.getValue();
+                    String normalizedKey = (classification.normalizedKey == null) ? "" : classification.normalizedKey;
+                    writer.write(header + "\t" + (classification.titleCandidate ? "1" : "0") + "\t" + normalizedKey);
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            changed = false;
+        } catch (IOException e) {
+            e.printStackTrace(); // Only costs classifying the headers again next session
+        }
+    }
+}
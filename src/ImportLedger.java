@@ -0,0 +1,433 @@
+/**
+ * The ImportLedger class remembers what earlier imports read, so re-importing a newer export of the same source only
+ * costs work for the rows that actually changed.
+ *
+ * For every source (see sourceKey) the ledger keeps:
+ * - The checksum of the file that was last imported. If the new file has the same checksum, it is skipped entirely.
+ * - A 64-bit hash of every row's raw values, together with the id (see Game.getId) of the library game the row
+ *   ended up as. Rows whose hash is already in the ledger are skipped before they are normalized; only new or changed
+ *   rows become games.
+ *
+ * A row is only skipped if its game is still in the library, so re-importing after starting GameLoom with an empty
+ * library still brings back every game.
+ *
+ * The ledger also remembers which of those games the source itself added to the library (rather than finding them
+ * already there, from another source or a manual entry), and a stamp of their attributes at the time. When rows
+ * disappear from a newer export, Session.finish returns only the games the source added that still have those exact
+ * attributes, i.e. that nobody edited since. Removing them is left to the caller, which asks the user first.
+ *
+ * The ledger is stored next to the auto-saves in the "GameLoom Exports" folder, as plain text:
+ *     GameLoomImportLedger<TAB>2
+ *     source<TAB>/home/me/Downloads/steam_<date>.csv|Steam<TAB>checksum
+ *     row hash<TAB>game id<TAB>added (1 or 0)<TAB>attribute stamp      (one line per row of that source)
+ *
+ * Example of how this class works:
+ *     ImportLedger.Session session = ImportLedger.getActive().begin(key, checksum, libraryIds);
+ *     GLParallelImporter.streamGamesFromCSV(path, "Steam", changed::add, report, session, null);
+ *     changed.forEach(libraryIndex::add);   // On the JavaFX Application Thread
+ *     List<Game> gone = session.finish(libraryIndex);
+ *     ImportLedger.getActive().save();
+ *
+ * @see LibraryIndex
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public class ImportLedger {
+    private static final Path LEDGER_FILE = Paths.get(System.getProperty("user.home"), "GameLoom Exports", "GameLoomImportLedger.txt");
+    private static volatile ImportLedger active; // Ledger used by imports, loaded on first use
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L; // 64-bit FNV-1a parameters for row hashes
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String FORMAT = "GameLoomImportLedger\t2"; // First line of the ledger file
+    // Dates in file names (2024-10-07, 20241007, 07.10.2024), which differ between exports of the same source
+    private static final Pattern DATE = Pattern.compile("(19|20)\\d{2}[-_.]?[01]\\d[-_.]?[0-3]\\d|[0-3]\\d[-_.][01]\\d[-_.](19|20)\\d{2}");
+
+    private final Path file;
+    private final Map<String, Source> sources = new HashMap<>();
+
+
+    /**
+     * Creates an empty ledger that is saved to the given file.
+     *
+     * @param file The ledger file.
+     */
+    public ImportLedger(Path file) {
+        this.file = file;
+    }
+
+
+    /**
+     * Returns the ledger used by imports, loading it from the ledger file the first time.
+     *
+     * @return The active ledger.
+     */
+    public static ImportLedger getActive() {
+        ImportLedger ledger = active;
+        if (ledger == null) {
+            synchronized (ImportLedger.class) {
+                if (active == null) {
+                    active = load(LEDGER_FILE);
+                }
+                ledger = active;
+            }
+        }
+        return ledger;
+    }
+
+    /**
+     * Loads a ledger from a file. A missing or unreadable file gives an empty ledger, which only means the next
+     * import of each source reads every row.
+     *
+     * @param file The ledger file.
+     * @return The loaded ledger.
+     */
+    public static ImportLedger load(Path file) {
+        ImportLedger ledger = new ImportLedger(file);
+        if (!Files.exists(file)) {
+            return ledger;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!FORMAT.equals(reader.readLine())) {
+                return ledger; // A ledger of an older GameLoom, whose rows don't say which games their source added
+            }
+            Source source = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length == 3 && fields[0].equals("source")) {
+                    source = new Source(fields[2]);
+                    ledger.sources.put(fields[1], source);
+                } else if (fields.length == 4 && source != null) {
+                    source.rows.put(Long.parseUnsignedLong(fields[0], 16),
+                            new Row(Long.parseLong(fields[1], 16), fields[2].equals("1"), Long.parseUnsignedLong(fields[3], 16)));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+            ledger.sources.clear(); // Start over rather than trust half a ledger
+        }
+        return ledger;
+    }
+
+    /**
+     * Writes the ledger to its file. The file is replaced in one step, so a crash never leaves half a ledger behind.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    public synchronized void save() throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(FORMAT);
+            writer.newLine();
+            for (Map.Entry<String, Source> source : sources.entrySet()) {
+                writer.write("source\t" + source.getKey() + "\t" + source.getValue().checksum);
+                writer.newLine();
+                for (Map.Entry<Long, Row> entry : source.getValue().rows.entrySet()) {
+                    Row row = entry.getValue();
+                    writer.write(Long.toHexString(entry.getKey()) + "\t" + Long.toHexString(row.gameId) + "\t" + (row.added ? "1" : "0") + "\t" + Long.toHexString(row.stamp));
+                    writer.newLine();
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+
+    /**
+     * Builds the key a file's ledger entry is filed under: its platform plus its path with any date in the file name
+     * replaced by "<date>", so that dated exports of the same source ("steam_2024-10-07.csv", "steam_2024-10-14.csv")
+     * share one entry, while exports of different accounts ("steam_acct1.csv", "steam_acct2.csv") or from different
+     * folders don't.
+     *
+     * @param file The file being imported.
+     * @param platform The platform selected (e.g., "Nintendo").
+     * @return The key of the file's source.
+     */
+    public static String sourceKey(File file, String platform) {
+        File absolute = file.getAbsoluteFile();
+        String name = DATE.matcher(absolute.getName().toLowerCase()).replaceAll("<date>");
+        return new File(absolute.getParentFile(), name).getPath() + "|" + platform;
+    }
+
+    /**
+     * Computes the checksum of a file's bytes (SHA-256).
+     *
+     * @param path The file.
+     * @return The checksum, as hex.
+     * @throws IOException If the file cannot be read.
+     */
+    public static String checksum(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every Java platform supports SHA-256
+        }
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Checks whether a file can be skipped entirely: its source was last imported from a file with the same checksum,
+     * and every game that import produced is still in the library.
+     *
+     * @param sourceKey The key of the file's source.
+     * @param checksum The checksum of the file.
+     * @param libraryIds The ids of the games in the library.
+     * @return true if importing the file would not change the library.
+     */
+    public synchronized boolean isUnchanged(String sourceKey, String checksum, Set<Long> libraryIds) {
+        Source source = sources.get(sourceKey);
+        if (source == null || !source.checksum.equals(checksum)) {
+            return false;
+        }
+        for (Row row : source.rows.values()) {
+            if (row.gameId != 0 && !libraryIds.contains(row.gameId)) {
+                return false; // One of its games was deleted or the library was started fresh
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Starts re-importing a file of a source.
+     *
+     * @param sourceKey The key of the file's source.
+     * @param checksum The checksum of the file.
+     * @param libraryIds The ids of the games in the library. Rows whose game is missing are read again.
+     * @return A session that filters the file's rows and records what they produced.
+     */
+    public synchronized Session begin(String sourceKey, String checksum, Set<Long> libraryIds) {
+        Source previous = sources.get(sourceKey);
+        return new Session(sourceKey, checksum, (previous == null) ? Map.of() : new HashMap<>(previous.rows), libraryIds);
+    }
+
+    /**
+     * Replaces a source's entry once a session over one of its files is finished.
+     */
+    private synchronized void commit(String sourceKey, Source source) {
+        sources.put(sourceKey, source);
+    }
+
+
+    /**
+     * Stamps a game's attributes, so finish can tell whether a game was edited since its source added it.
+     * The stamp doesn't depend on the order of the attributes, which changes when a game enters the library.
+     */
+    private static long stamp(Game game) {
+        long stamp = 0;
+        for (Map.Entry<String, String> entry : game.getAttributes().entrySet()) {
+            stamp += hash(FNV_OFFSET, new String[] {entry.getKey(), entry.getValue()}, 2);
+        }
+        return stamp;
+    }
+
+
+    /**
+     * The ledger entry of one source.
+     */
+    private static class Source {
+        final String checksum;
+        final Map<Long, Row> rows = new HashMap<>(); // Row hash -> the library game the row ended up as
+
+        Source(String checksum) {
+            this.checksum = checksum;
+        }
+    }
+
+
+    /**
+     * The library game a row of a source ended up as.
+     */
+    private static class Row {
+        static final Row NONE = new Row(0, false, 0); // The row's game isn't in the library (e.g., its import was cut short)
+
+        final long gameId; // Id of the game in the library, 0 for none
+        final boolean added; // Whether the source added the game, rather than finding it already in the library
+        final long stamp; // Stamp of the game's attributes when the source added or last updated it, if it added it
+
+        Row(long gameId, boolean added, long stamp) {
+            this.gameId = gameId;
+            this.added = added;
+            this.stamp = stamp;
+        }
+    }
+
+
+    /**
+     * Hash of a file's header row, which seeds the hash of each of its rows.
+     */
+    private static class HeaderHash {
+        final String[] headers;
+        final long hash;
+
+        HeaderHash(String[] headers) {
+            this.headers = headers;
+            this.hash = hash(FNV_OFFSET, headers, headers.length);
+        }
+    }
+
+
+    /**
+     * One re-import of a file. The session is the import's GLImporter.RowFilter: it skips the rows the ledger already
+     * has, and remembers the game of every row it lets through. key and accept may be called from several parser
+     * threads; skipped and built are called in file order by the import thread. Once the whole file was read and its
+     * games were handed to the library, finish is called on the JavaFX Application Thread.
+     */
+    public class Session implements GLImporter.RowFilter {
+        private final String sourceKey;
+        private final Source current;
+        private final Map<Long, Row> previous; // Only read while rows are being filtered
+        private final Set<Long> libraryIds; // Only read while rows are being filtered
+        private final Map<Long, Game> readRows = new HashMap<>(); // Row hash -> game, for the rows that were let through
+        private volatile HeaderHash headerHash; // Of the file being read
+        private int unchangedRows = 0;
+
+        private Session(String sourceKey, String checksum, Map<Long, Row> previous, Set<Long> libraryIds) {
+            this.sourceKey = sourceKey;
+            this.current = new Source(checksum);
+            this.previous = previous;
+            this.libraryIds = libraryIds;
+        }
+
+        /**
+         * Hashes the row's values, seeded with the hash of its header row.
+         */
+        @Override
+        public long key(String[] headers, String[] values, int valueCount) {
+            HeaderHash seed = headerHash;
+            if (seed == null || seed.headers != headers) {
+                seed = new HeaderHash(headers);
+                headerHash = seed;
+            }
+            return hash(seed.hash, values, valueCount);
+        }
+
+        /**
+         * Lets a row through only if the ledger hasn't seen it, or its game is no longer in the library.
+         */
+        @Override
+        public boolean accept(long rowHash) {
+            Row row = previous.get(rowHash);
+            return row == null || row.gameId == 0 || !libraryIds.contains(row.gameId);
+        }
+
+        /**
+         * Keeps the ledger's entry of an unchanged row, whose game is already in the library.
+         */
+        @Override
+        public void skipped(long rowHash) {
+            current.rows.put(rowHash, previous.get(rowHash));
+            unchangedRows++;
+        }
+
+        /**
+         * Remembers which game a new or changed row produced.
+         */
+        @Override
+        public void built(long rowHash, Game game) {
+            readRows.put(rowHash, game);
+        }
+
+        /**
+         * @return How many rows were skipped because they haven't changed since the last import.
+         */
+        public int getUnchangedRows() {
+            return unchangedRows;
+        }
+
+        /**
+         * Ends the session after the whole file was read and its games were added to the library, replacing the
+         * source's ledger entry. Not called for an import that was cancelled, so its next import compares against the
+         * last complete one. Must be called on the JavaFX Application Thread.
+         *
+         * Each row that was read is matched with the library game it ended up as: the row's own game if it was added,
+         * or the game it was a duplicate of. The source keeps owning games it added before and now updated.
+         *
+         * @param index The index of the library the games were added to.
+         * @return The games whose rows are no longer in the source, of those the source added to the library and
+         *         that nobody edited since. Nothing is removed; that is up to the caller.
+         */
+        public List<Game> finish(LibraryIndex index) {
+            Set<Long> addedBefore = new HashSet<>();
+            for (Row row : previous.values()) {
+                if (row.added) {
+                    addedBefore.add(row.gameId);
+                }
+            }
+            for (Map.Entry<Long, Game> entry : readRows.entrySet()) {
+                Game game = entry.getValue();
+                boolean added = index.getById(game.getId()) == game;
+                Game libraryGame = added ? game : index.find(game);
+                if (libraryGame == null) {
+                    current.rows.put(entry.getKey(), Row.NONE);
+                } else {
+                    added = added || addedBefore.contains(libraryGame.getId()); // A changed row of a game the source added
+                    current.rows.put(entry.getKey(), new Row(libraryGame.getId(), added, added ? stamp(libraryGame) : 0));
+                }
+            }
+
+            Set<Long> stillInSource = new HashSet<>();
+            for (Row row : current.rows.values()) {
+                stillInSource.add(row.gameId);
+            }
+            List<Game> removed = new ArrayList<>();
+            for (Row row : previous.values()) {
+                if (!row.added || !stillInSource.add(row.gameId)) {
+                    continue; // Not added by this source, still in it, or already listed
+                }
+                Game game = index.getById(row.gameId);
+                if (game != null && stamp(game) == row.stamp) {
+                    removed.add(game); // Added by this source and unchanged since
+                }
+            }
+            commit(sourceKey, current);
+            return removed;
+        }
+    }
+
+
+    /**
+     * Hashes a row's values with 64-bit FNV-1a, separating the values so that ("ab", "c") and ("a", "bc") differ.
+     */
+    private static long hash(long seed, String[] values, int valueCount) {
+        long hash = seed;
+        for (int i = 0; i < valueCount; i++) {
+            String value = values[i];
+            for (int j = 0; j < value.length(); j++) {
+                hash = (hash ^ value.charAt(j)) * FNV_PRIME;
+            }
+            hash = (hash ^ 0x1F) * FNV_PRIME; // Unit separator between values
+        }
+        return hash;
+    }
+}
@@ -176,21 +176,12 @@ public class LandingPage {
         //Upon clicking the icon, opens a dialog to choose the CSV file, then switches the scene to the main library UI
         icon.setOnMouseClicked(event -> {
             FileChooser fileChooser = new FileChooser(); // Opens a file chooser to select a CSV file
-            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv")); // Limits file type to CSV
+            fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv", "*.gz", "*.zip")); // Limits file type to CSV, plain or compressed
             File selectedFile = fileChooser.showOpenDialog(primaryStage); // Shows the open file dialog
 
             if (selectedFile != null) { // If a file is selected
-                List<Game> importedGames = GLImporter.importGamesFromCSV(selectedFile.getPath(), type); // Imports games from the selected CSV file
-
-                // Only assign the platform if the selected option is not "GameLoom Library" (import an existing library from our program)
-                if (!"GameLoom Library".equals(type)) {
-                    for (Game game : importedGames) {
-                        game.getAttributes().put("platform", type); // Adds platform attribute to each game
-                    }
-                }
-
-                GUIDriver.populateGameList(importedGames); // Adds games to the game list in the UI
-                primaryStage.setScene(libraryScene);
+                GUIDriver.startImport(selectedFile, type); // Imports games in the background, adding them to the UI as they are read
+                primaryStage.setScene(libraryScene); // The library shows the import's progress while it runs
             }
         });
         return icon;
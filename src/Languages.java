@@ -0,0 +1,59 @@
+/**
+ * The Languages class is the dictionary behind each game's language mask: a bit per supported language, so the
+ * languages of a game fit in a single long and "does this game support German?" is one bitwise AND.
+ *
+ * The dictionary is Normalizer's language list, in order, so bit 0 is English, bit 1 is Spanish, and so on. A game
+ * supports a language if its "languages" text mentions it anywhere, ignoring case, which is the same test a keyword
+ * filter on "languages" has always done. The text itself is kept as it was imported, so exports and the library
+ * view show exactly what they did before.
+ *
+ * Example of how this class works:
+ *     long german = Languages.bit("german");
+ *     if ((game.getLanguages() & german) != 0) {
+ *         // The game supports German
+ *     }
+ *
+ * @see Game#getLanguages()
+ * @see Normalizer
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.util.List;
+
+public class Languages {
+    private static final List<String> DICTIONARY = List.of(Normalizer.languages); // Bit i stands for DICTIONARY.get(i)
+    private static final AhoCorasick automaton = new AhoCorasick(DICTIONARY);
+
+    static {
+        if (DICTIONARY.size() > Long.SIZE) {
+            throw new IllegalStateException("A language mask holds at most " + Long.SIZE + " languages");
+        }
+    }
+
+
+    /**
+     * @param language A language name (e.g., "German"), ignoring case.
+     * @return The language's bit, or 0 if the language isn't in the dictionary.
+     */
+    public static long bit(String language) {
+        int index = DICTIONARY.indexOf(language.trim().toLowerCase());
+        return (index < 0) ? 0 : 1L << index;
+    }
+
+    /**
+     * Finds every dictionary language mentioned in a text, in one pass over the text.
+     *
+     * @param text A "languages" value (e.g., "english, German"), or null.
+     * @return The mask of the languages mentioned.
+     */
+    public static long maskOf(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        long[] mask = {0};
+        automaton.forEachMatch(text.toLowerCase(), index -> mask[0] |= 1L << index);
+        return mask[0];
+    }
+}
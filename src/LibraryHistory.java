@@ -0,0 +1,307 @@
+/**
+ * The LibraryHistory class keeps versioned, immutable snapshots of the GameLoom library, and the undo and redo
+ * stacks of the edit and manual entry tabs.
+ *
+ * A Snapshot is a PersistentMap from game id to an Entry holding the game's place in the library and its row, and a
+ * frozen copy of the library's LibraryStore (see LibraryStore.freeze) the row is read from. LibraryIndex, which makes
+ * every change to the library, tells the history about each one, and each change makes a new map that shares
+ * everything it didn't touch with the previous one. Taking a snapshot only freezes the store, which shares every
+ * chunk of rows that didn't change since the last one, so entries cost the history no copy of any attribute and
+ * keeping a snapshot is cheap. A snapshot never changes afterwards: the auto-save thread can export one while the
+ * library is being edited, without locks and without copying the library first.
+ *
+ * Snapshots are taken on the JavaFX Application Thread, when an undo step starts or ends, and, once publishOn was
+ * called, shortly after every change, once the event that made it is done. latest returns the last one taken to any
+ * thread.
+ *
+ * An undo step is the pair of snapshots from before and after one user action (an edit, a deletion, a manual entry).
+ * Undoing it puts back, for only the games that action changed, the attributes they had before it; redoing it puts
+ * back the ones they had after. Changes made in between by other actions (an import, say) are left alone. Steps are
+ * kept until GameLoom closes, and making a new step clears the redo stack.
+ *
+ * Example of how this class works:
+ *     LibraryHistory.Snapshot before = libraryIndex.getHistory().snapshot();
+ *     libraryIndex.update(game, "hours_played", "12.5");
+ *     libraryIndex.getHistory().record("Edit hours played", before);
+ *     libraryIndex.undo();   // hours_played is back to its old value
+ *
+ * Note: Changes, snapshots, and undo steps are made on the JavaFX Application Thread only. latest can be called from
+ * any thread.
+ *
+ * @see LibraryIndex
+ * @see PersistentMap
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+public class LibraryHistory {
+    private final LibraryStore store; // The library's store, frozen into each snapshot
+    private PersistentMap<Entry> games = PersistentMap.empty(); // Every game in the library now, by id
+    private long version = 0; // Grows with every change to the library
+    private long nextOrder = 0; // Library position key of the next game that enters the library
+    private volatile Snapshot latest; // The last snapshot taken
+    private Executor publisher = null; // Takes a snapshot after changes (see publishOn), or null
+    private boolean publishing = false; // Whether the publisher was asked for a snapshot that wasn't taken yet
+    private final Deque<Step> undoSteps = new ArrayDeque<>();
+    private final Deque<Step> redoSteps = new ArrayDeque<>();
+
+
+    /**
+     * Creates the history of a library.
+     *
+     * @param store The store holding the attributes of the games in the library.
+     */
+    LibraryHistory(LibraryStore store) {
+        this.store = store;
+        this.latest = new Snapshot(games, store.freeze(), version);
+    }
+
+
+    /**
+     * Takes a snapshot of the library as it is now, or returns the last one if nothing changed since.
+     * Must be called on the JavaFX Application Thread, like every change to the library.
+     *
+     * @return The snapshot. It never changes, later changes make new snapshots.
+     */
+    public Snapshot snapshot() {
+        Snapshot last = latest;
+        if (last.version != version) {
+            last = new Snapshot(games, store.freeze(), version);
+            latest = last;
+        }
+        return last;
+    }
+
+    /**
+     * @return The last snapshot taken, which can be read from any thread. It may miss the newest changes until the
+     *         next snapshot is taken.
+     */
+    public Snapshot latest() {
+        return latest;
+    }
+
+    /**
+     * Has a snapshot taken with the given executor after every change from now on, so latest follows the library.
+     * Changes made before the executor runs the first request share its snapshot.
+     *
+     * @param executor Runs the request on the JavaFX Application Thread, e.g. Platform::runLater.
+     */
+    public void publishOn(Executor executor) {
+        publisher = executor;
+    }
+
+    /**
+     * Records the current row of a game that entered the library or changed.
+     * Called by LibraryIndex.
+     *
+     * @param game A game in the library.
+     */
+    void put(Game game) {
+        Entry old = games.get(game.getId());
+        put(game, (old == null) ? nextOrder++ : old.order); // Edited games keep their place
+    }
+
+    /**
+     * Records the current row of a game that an undo or redo put back in the library, at its old place.
+     * Called by LibraryIndex.
+     *
+     * @param game A game in the library.
+     * @param order The game's library position key, from the snapshot it was restored from.
+     */
+    void put(Game game, long order) {
+        games = games.with(game.getId(), new Entry(order, game.getRow())); // A new entry, so diff sees the change
+        changed();
+    }
+
+    /**
+     * Records that a game left the library.
+     * Called by LibraryIndex.
+     *
+     * @param game The game.
+     */
+    void remove(Game game) {
+        PersistentMap<Entry> without = games.without(game.getId());
+        if (without != games) {
+            games = without;
+            changed();
+        }
+    }
+
+    /**
+     * Makes an undo step of everything that changed since the given snapshot, if anything did.
+     *
+     * @param label What the user did (e.g., "Delete game"), for the undo and redo buttons.
+     * @param before The snapshot taken before the user's action.
+     */
+    public void record(String label, Snapshot before) {
+        if (before.games != games) {
+            undoSteps.push(new Step(label, before, snapshot()));
+            redoSteps.clear();
+        }
+    }
+
+    /**
+     * @return The label of the step undo would undo, or null if there is none.
+     */
+    public String peekUndo() {
+        return undoSteps.isEmpty() ? null : undoSteps.peek().label;
+    }
+
+    /**
+     * @return The label of the step redo would redo, or null if there is none.
+     */
+    public String peekRedo() {
+        return redoSteps.isEmpty() ? null : redoSteps.peek().label;
+    }
+
+    /**
+     * Takes the latest undo step off the undo stack and onto the redo stack.
+     * Called by LibraryIndex.undo, which applies it.
+     *
+     * @return The step, or null if there is nothing to undo.
+     */
+    Step popUndo() {
+        Step step = undoSteps.poll();
+        if (step != null) {
+            redoSteps.push(step);
+        }
+        return step;
+    }
+
+    /**
+     * Takes the latest redo step off the redo stack and back onto the undo stack.
+     * Called by LibraryIndex.redo, which applies it.
+     *
+     * @return The step, or null if there is nothing to redo.
+     */
+    Step popRedo() {
+        Step step = redoSteps.poll();
+        if (step != null) {
+            undoSteps.push(step);
+        }
+        return step;
+    }
+
+    /**
+     * @param id A game id.
+     * @return The library position key of the game, or -1 if it isn't in the library.
+     */
+    long orderOf(long id) {
+        Entry entry = games.get(id);
+        return (entry == null) ? -1 : entry.order;
+    }
+
+    /**
+     * Counts a change, and asks the publisher for a snapshot if it wasn't asked already.
+     */
+    private void changed() {
+        version++;
+        if (publisher != null && !publishing) {
+            publishing = true;
+            publisher.execute(() -> {
+                publishing = false;
+                snapshot();
+            });
+        }
+    }
+
+
+    /**
+     * The library at one moment: the attributes of every game in it, by id.
+     */
+    public static final class Snapshot {
+        private final PersistentMap<Entry> games;
+        private final LibraryStore store; // Frozen, holding the rows of the entries
+        private final long version;
+
+        private Snapshot(PersistentMap<Entry> games, LibraryStore store, long version) {
+            this.games = games;
+            this.store = store;
+            this.version = version;
+        }
+
+        /**
+         * @return A number that grows with every change to the library, so two snapshots with the same version have
+         *         the same games.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return The number of games in the library.
+         */
+        public int size() {
+            return games.size();
+        }
+
+        /**
+         * @param id A game id.
+         * @return The game's attributes at the time of the snapshot, or null if it wasn't in the library.
+         */
+        public Map<String, String> get(long id) {
+            Entry entry = games.get(id);
+            return (entry == null) ? null : Collections.unmodifiableMap(Game.view(store, entry.row, id).getAttributes());
+        }
+
+        /**
+         * Lists the games in the snapshot, in library order, e.g. to export them. The games are views of the
+         * snapshot's frozen rows, not the games in the library, and can't be changed.
+         *
+         * @return The games.
+         */
+        public List<Game> games() {
+            List<long[]> order = new ArrayList<>(games.size()); // {order, id, row} of each game
+            games.forEach((id, entry) -> order.add(new long[] {entry.order, id, entry.row}));
+            order.sort((a, b) -> Long.compare(a[0], b[0]));
+            List<Game> views = new ArrayList<>(order.size());
+            for (long[] game : order) {
+                views.add(Game.view(store, (int) game[2], game[1]));
+            }
+            return views;
+        }
+
+        PersistentMap<Entry> entries() {
+            return games;
+        }
+    }
+
+
+    /**
+     * Where a game is in a snapshot: its place in the library and its row in the snapshot's store.
+     */
+    static final class Entry {
+        final long order; // Games are in the library in order of this key
+        final int row;
+
+        private Entry(long order, int row) {
+            this.order = order;
+            this.row = row;
+        }
+    }
+
+
+    /**
+     * One undo step: the library before and after a user action.
+     */
+    static final class Step {
+        final String label;
+        final Snapshot before;
+        final Snapshot after;
+
+        private Step(String label, Snapshot before, Snapshot after) {
+            this.label = label;
+            this.before = before;
+            this.after = after;
+        }
+    }
+}
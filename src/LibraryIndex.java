@@ -0,0 +1,454 @@
+/**
+ * The LibraryIndex class is the single way games are added to and removed from the GameLoom library. It keeps a hash
+ * index of the library keyed on each game's fingerprint, so duplicate checks take constant time instead of a scan
+ * over the whole library.
+ *
+ * A fingerprint is the game's title and platform, with enclosing quotes removed, whitespace collapsed, and case folded,
+ * so re-importing the same export finds every game it already added. What happens to a duplicate is decided by the
+ * index's MergePolicy:
+ * - **SKIP**: The game already in the library is kept as it is and the new copy is dropped (the default).
+ * - **OVERWRITE**: The attributes of the game already in the library are replaced with the new copy's attributes.
+ * - **MERGE**: Attributes that the game already in the library is missing (or has no value for) are filled in from
+ *   the new copy; values it already has are kept.
+ * In every case the game already in the library stays the same object, in the same place in the library.
+ *
+ * Games without a title are never treated as duplicates, since there is nothing to tell them apart by.
+ *
+ * Every game in the library can also be looked up by its stable id (Game.getId), which is how the edit tab finds the
+ * game to update or delete. A game that enters the library with the id of a game already in it (a second copy of the
+ * same export, say) is given a new id.
+ *
+ * Every change also goes to the index's LibraryHistory, whose snapshots of the library can be read on other threads
+ * (e.g., by the auto-save), and undo and redo put back the games the last user action changed (see
+ * LibraryHistory.record).
+ *
+ * Games added to the library keep their attributes in the index's LibraryStore (one column per attribute) instead of
+ * a map each, and get a map of their own again when they are removed.
+ *
+ * Example of how this class works:
+ *     LibraryIndex index = new LibraryIndex(library);
+ *     if (index.add(game) == LibraryIndex.AddResult.ADDED) {
+ *         gameList.getChildren().add(GUIDriver.createGameItem(game, game.toString()));
+ *     }
+ *
+ * Note: Game does not override equals or hashCode on purpose, since its attributes can be edited at any time. Code that
+ * edits a game should do so through update, or call reindex afterwards so the index (and its FeatureFlags) follows
+ * the change. The index is not thread-safe and is only used from the JavaFX Application Thread.
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class LibraryIndex {
+    /**
+     * What to do with a game whose fingerprint is already in the library.
+     */
+    public enum MergePolicy { SKIP, OVERWRITE, MERGE }
+
+    /**
+     * What add did with a game.
+     */
+    public enum AddResult {
+        ADDED, // The game was new and was added to the library
+        SKIPPED, // The game was a duplicate and was dropped
+        UPDATED // The game was a duplicate and the game already in the library was updated from it
+    }
+
+    private final List<Game> library;
+    private final Map<String, Game> gamesByFingerprint = new HashMap<>();
+    private final Map<Game, String> fingerprints = new IdentityHashMap<>(); // Fingerprint each indexed game was filed under
+    private final Map<Long, Game> gamesById = new HashMap<>(); // Every game in the library, by id
+    private MergePolicy policy = MergePolicy.SKIP;
+    private final FeatureFlags flags; // Yes/no attributes of the library as bitmaps, kept in step with every change
+    private final SchemaRegistry schema = SchemaRegistry.getActive(); // Statistics of the library's values, likewise
+    private final LibraryStore store = new LibraryStore(); // Columns holding the attributes of every game in the library
+    private final LibraryHistory history = new LibraryHistory(store); // Snapshots of the library and the undo and redo steps
+
+
+    /**
+     * Creates an index over a library, indexing the games already in it.
+     *
+     * @param library The library this index adds games to and removes games from.
+     */
+    public LibraryIndex(List<Game> library) {
+        this.library = library;
+        this.flags = new FeatureFlags(library);
+        for (Game game : library) {
+            index(game);
+            indexId(game);
+            schema.record(game);
+            game.attachTo(store);
+            history.put(game);
+        }
+    }
+
+
+    /**
+     * Builds the fingerprint of a game from its title and platform.
+     *
+     * @param game The game.
+     * @return The fingerprint, or null if the game has no title.
+     */
+    public static String fingerprint(Game game) {
+        String title = fold(game.getAttribute(AttributeKeys.TITLE));
+        if (title.isEmpty()) {
+            return null;
+        }
+        return title + '\u0000' + fold(game.getAttribute(AttributeKeys.PLATFORM));
+    }
+
+    /**
+     * @return The policy used for duplicates.
+     */
+    public MergePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @param policy The policy to use for duplicates from now on.
+     */
+    public void setPolicy(MergePolicy policy) {
+        this.policy = policy;
+    }
+
+
+    /**
+     * Adds a game to the library, unless a game with the same fingerprint is already in it, in which case the
+     * merge policy decides what happens.
+     *
+     * @param game The game to add.
+     * @return What was done with the game.
+     */
+    public AddResult add(Game game) {
+        return add(game, policy);
+    }
+
+    /**
+     * Adds a game to the library like add(game), using the given policy for duplicates instead of the index's policy.
+     * Incremental re-imports use this to overwrite games whose rows changed.
+     *
+     * @param game The game to add.
+     * @param policy What to do if a game with the same fingerprint is already in the library.
+     * @return What was done with the game.
+     */
+    public AddResult add(Game game, MergePolicy policy) {
+        String fingerprint = fingerprint(game);
+        Game existing = (fingerprint == null) ? null : gamesByFingerprint.get(fingerprint);
+        if (existing == game) {
+            return AddResult.SKIPPED; // The very same game, nothing to do
+        }
+        if (existing == null) {
+            library.add(game);
+            indexId(game);
+            schema.record(game); // Read from the game's own map, before its text values are packed
+            game.attachTo(store); // The game's own map is dropped for a row in the store's columns
+            if (fingerprint != null) {
+                gamesByFingerprint.put(fingerprint, game);
+                fingerprints.put(game, fingerprint);
+            }
+            flags.added(game);
+            history.put(game);
+            return AddResult.ADDED;
+        }
+
+        switch (policy) {
+            case OVERWRITE:
+                overwrite(existing, game.getAttributes());
+                history.put(existing);
+                return AddResult.UPDATED;
+            case MERGE:
+                boolean changed = false;
+                for (Map.Entry<String, String> entry : game.getAttributes().entrySet()) {
+                    String current = existing.getAttributes().get(entry.getKey());
+                    if (isMissing(current) && !isMissing(entry.getValue())) {
+                        existing.getAttributes().put(entry.getKey(), entry.getValue());
+                        schema.unrecord(entry.getKey(), current);
+                        schema.record(entry.getKey(), entry.getValue());
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    flags.invalidate();
+                    history.put(existing);
+                }
+                return changed ? AddResult.UPDATED : AddResult.SKIPPED;
+            default:
+                return AddResult.SKIPPED;
+        }
+    }
+
+    /**
+     * Removes a game from the library.
+     *
+     * @param game The game to remove.
+     * @return true if the game was in the library.
+     */
+    public boolean remove(Game game) {
+        if (gamesById.get(game.getId()) != game) {
+            return false; // Not in the library, no need to look for it
+        }
+        gamesById.remove(game.getId());
+        String fingerprint = fingerprints.remove(game);
+        if (fingerprint != null && gamesByFingerprint.get(fingerprint) == game) {
+            gamesByFingerprint.remove(fingerprint);
+        }
+        flags.invalidate(); // Every game after it moves up one position
+        boolean removed = library.remove(game);
+        if (removed) {
+            history.remove(game);
+            schema.unrecord(game);
+            game.detach(); // Frees its row, so the game keeps working outside the library (e.g. in the edit tab)
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the game with the given id from the library.
+     *
+     * @param id The id of the game (see Game.getId).
+     * @return The game that was removed, or null if no game in the library has the id.
+     */
+    public Game removeById(long id) {
+        Game game = gamesById.get(id);
+        if (game != null) {
+            remove(game);
+        }
+        return game;
+    }
+
+    /**
+     * Edits one attribute of a game in the library (see Game.updateAttribute), keeping the index, the feature flags,
+     * and the schema statistics in step with the change.
+     *
+     * @param game A game in the library.
+     * @param key The attribute to change.
+     * @param value The new value, or an empty value to remove the attribute.
+     */
+    public void update(Game game, String key, String value) {
+        Map<String, String> before = new HashMap<>(game.getAttributes());
+        game.updateAttribute(key, value);
+        schema.recordChanges(before, game);
+        reindex(game);
+    }
+
+    /**
+     * Files a game under its current fingerprint after its title or platform was edited.
+     *
+     * @param game A game in the library.
+     */
+    public void reindex(Game game) {
+        String old = fingerprints.remove(game);
+        if (old != null && gamesByFingerprint.get(old) == game) {
+            gamesByFingerprint.remove(old);
+        }
+        index(game);
+        flags.invalidate(); // Other attributes may have been edited along with the title or platform
+        history.put(game);
+    }
+
+    /**
+     * Undoes the latest undo step (see LibraryHistory.record): the games it changed get back the attributes they had
+     * before it, games it removed are put back in their old places, and games it added are removed.
+     *
+     * @return The ids of the games the step changed, or null if there was no step to undo.
+     */
+    public List<Long> undo() {
+        LibraryHistory.Step step = history.popUndo();
+        return (step == null) ? null : revert(step.after, step.before);
+    }
+
+    /**
+     * Redoes the latest undone step, giving the games it changed the attributes they had after it.
+     *
+     * @return The ids of the games the step changed, or null if there was no step to redo.
+     */
+    public List<Long> redo() {
+        LibraryHistory.Step step = history.popRedo();
+        return (step == null) ? null : revert(step.before, step.after);
+    }
+
+    /**
+     * @return The snapshots of the library and its undo and redo steps.
+     */
+    public LibraryHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Finds the game in the library that has the same fingerprint as the given game.
+     *
+     * @param game A game, which doesn't have to be in the library.
+     * @return The matching game in the library, or null if there is none.
+     */
+    public Game find(Game game) {
+        String fingerprint = fingerprint(game);
+        return (fingerprint == null) ? null : gamesByFingerprint.get(fingerprint);
+    }
+
+    /**
+     * Finds the game in the library that has the given id.
+     *
+     * @param id The id of a game (see Game.getId).
+     * @return The game, or null if no game in the library has the id.
+     */
+    public Game getById(long id) {
+        return gamesById.get(id);
+    }
+
+    /**
+     * @return The columns holding the attributes of the games in the library.
+     */
+    public LibraryStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return The yes/no attributes of the library as bitmaps (multiplayer, captions, ...), for filters.
+     */
+    public FeatureFlags getFlags() {
+        return flags;
+    }
+
+    /**
+     * @return A copy of the ids of the games in the library, which background imports can read safely.
+     */
+    public Set<Long> ids() {
+        return new HashSet<>(gamesById.keySet());
+    }
+
+    /**
+     * Adds a game that is already in the library to the index. If another game already has its fingerprint,
+     * the first one stays in the index.
+     */
+    private void index(Game game) {
+        String fingerprint = fingerprint(game);
+        if (fingerprint != null && !gamesByFingerprint.containsKey(fingerprint)) {
+            gamesByFingerprint.put(fingerprint, game);
+            fingerprints.put(game, fingerprint);
+        }
+    }
+
+    /**
+     * Replaces the attributes of a game in the library, keeping the statistics and feature flags in step.
+     */
+    private void overwrite(Game game, Map<String, String> attributes) {
+        schema.unrecord(game);
+        game.getAttributes().clear();
+        game.getAttributes().putAll(attributes);
+        schema.record(game);
+        flags.invalidate();
+    }
+
+    /**
+     * Gives every game that differs between two snapshots the state it has in the second one.
+     *
+     * @param from The snapshot the step starts from.
+     * @param to The snapshot the step goes back (or forward) to.
+     * @return The ids of the games that were changed, added, or removed.
+     */
+    private List<Long> revert(LibraryHistory.Snapshot from, LibraryHistory.Snapshot to) {
+        List<Long> ids = new ArrayList<>();
+        List<LibraryHistory.Entry> targets = new ArrayList<>();
+        PersistentMap.diff(from.entries(), to.entries(), (id, before, after) -> {
+            ids.add(id);
+            targets.add(after);
+        });
+        for (int i = 0; i < ids.size(); i++) {
+            long id = ids.get(i);
+            LibraryHistory.Entry target = targets.get(i);
+            Game game = gamesById.get(id);
+            if (target == null) {
+                if (game != null) {
+                    remove(game);
+                }
+            } else if (game == null) {
+                restore(id, to.get(id), target.order);
+            } else {
+                overwrite(game, to.get(id));
+                reindex(game);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Puts a game that an undo or redo brings back into the library, at the place its order key gives it.
+     */
+    private void restore(long id, Map<String, String> values, long order) {
+        Map<String, String> attributes = new LinkedHashMap<>(values);
+        Game game = new Game(attributes, Languages.maskOf(attributes.get("languages")), id);
+        int low = 0;
+        int high = library.size();
+        while (low < high) { // The library is in order key order, find the first game that comes after this one
+            int middle = (low + high) >>> 1;
+            if (history.orderOf(library.get(middle).getId()) < order) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        library.add(low, game);
+        indexId(game);
+        index(game);
+        schema.record(game);
+        game.attachTo(store);
+        flags.invalidate(); // The games after it moved down one position
+        history.put(game, order);
+    }
+
+    /**
+     * Files a game that is being added to the library under its id, giving it a new id if another game has its id.
+     */
+    private void indexId(Game game) {
+        Game other;
+        while ((other = gamesById.putIfAbsent(game.getId(), game)) != null && other != game) {
+            game.renewId();
+        }
+    }
+
+    /**
+     * Folds a title or platform for fingerprinting: no enclosing quotes, single spaces, lower case.
+     * Missing values ("N/A" or empty) fold to an empty string.
+     */
+    private static String fold(String value) {
+        if (isMissing(value)) {
+            return "";
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            trimmed = trimmed.substring(1, trimmed.length() - 1);
+        }
+        StringBuilder folded = new StringBuilder(trimmed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = folded.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    folded.append(' ');
+                    pendingSpace = false;
+                }
+                folded.append(c);
+            }
+        }
+        return folded.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return true if an attribute value is missing, empty, or "N/A".
+     */
+    private static boolean isMissing(String value) {
+        return value == null || value.trim().isEmpty() || value.trim().equalsIgnoreCase("N/A");
+    }
+}
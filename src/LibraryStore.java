@@ -0,0 +1,977 @@
+/**
+ * The LibraryStore class holds the attributes of every game in the library in columns, one per attribute id (see
+ * AttributeKeys), instead of one map per game. A game in the library is only a row number into the store; its
+ * getAttributes map is a view of that row.
+ *
+ * Columns are stored in one of two ways:
+ * - **Dictionary**: Each distinct value is kept once and rows hold a 16-bit code into the dictionary. Platforms,
+ *   flags, languages, hours, and dates repeat heavily, so a column of them costs two bytes per game.
+ * - **Packed**: Values are copied back to back into one char array, with each row's offset and length. Columns start
+ *   as dictionaries and switch to packed once they have more than DICTIONARY_LIMIT distinct values (titles, notes).
+ *   A row's value is only made a String when it is first read, and that String is kept until the value is set again,
+ *   so rows that are never read cost no String and rows read often cost one (has checks for a value without one).
+ * A missing attribute costs nothing beyond the column's slot for the row. The languages of each row are also kept as
+ * a Languages mask, so language filters never parse the text, and its title as a TitleCollator key, so title sorts
+ * never fold it.
+ *
+ * Every value is also parsed once, when it is stored, as a number (Game.parseNumber), as a date (Game.parseDate),
+ * and as a flag (FeatureFlags.isSet), and given a Type. Sorts, range filters, and feature filters read those parsed
+ * values with number, date, and isFlagged instead of parsing the text on every comparison; values that aren't
+ * numbers or dates read as NaN and Game.NO_DATE. From the values' types each column infers the type of its
+ * attribute (type), and isValid tells whether a row's value fits it, so a "soon" among release dates is flagged
+ * once instead of failing a parse on every comparison.
+ *
+ * Rows of games that leave the library are cleared and reused by the next game that is added. Values replaced by
+ * edits stay in a packed column until enough of them pile up, then the column is compacted into a new array.
+ *
+ * freeze makes a read-only copy of the store that never changes afterwards, which LibraryHistory's snapshots read
+ * from any thread. Every per-row array (codes, offsets, parsed values, masks, keys) is kept in chunks of 64 rows,
+ * gathered in pages of 64 chunks. A frozen copy shares all of them with the store, and the store copies a page and a
+ * chunk the first time it writes to them afterwards, so freezing costs a reference per page, not a copy of the rows,
+ * and an edit copies at most 64 values per array it writes to. Packed characters and dictionary values are only ever
+ * appended, so frozen copies share them as they are.
+ *
+ * Example of how this class works:
+ *     LibraryStore store = new LibraryStore();
+ *     int row = store.addRow(game.getAttributes(), game.getLanguages());
+ *     String platform = store.get(row, AttributeKeys.PLATFORM);   // "Steam", or null if the game has no platform
+ *     LibraryStore frozen = store.freeze();
+ *     store.set(row, AttributeKeys.PLATFORM, "GOG");
+ *     frozen.get(row, AttributeKeys.PLATFORM);                     // Still "Steam"
+ *
+ * Note: The store is changed and frozen only on the JavaFX Application Thread (through LibraryIndex), like the
+ * library list. Frozen copies can be read from any thread once handed over safely (e.g., through a volatile field).
+ *
+ * @see Game
+ * @see LibraryIndex
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+public class LibraryStore {
+    /**
+     * The kinds of values an attribute can hold.
+     */
+    public enum Type {
+        DATE, // Dates like "2021-05-20"
+        INTEGER, // Whole numbers like "85"
+        DECIMAL, // Numbers like "12.5"
+        BOOLEAN, // Yes/no values like "yes" or "false"
+        TEXT // Anything else
+    }
+
+    private static final Type[] TYPES = Type.values();
+    private static final int TYPE_MASK = 0x07; // Bits of a value's kind holding its Type ordinal + 1, 0 for no type
+    private static final int FLAG = 0x08; // Bit of a value's kind set when the value sets a flag
+    private static final int DICTIONARY_LIMIT = 4096; // Distinct values past which a column is packed; fits the 16-bit codes
+    private static final int CHUNK_BITS = 6; // 64 rows per chunk of a per-row array
+    private static final int CHUNK_ROWS = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+    private static final int PAGE_BITS = 12; // 4096 rows (64 chunks) per page
+    private static final int PAGE_CHUNKS = 1 << (PAGE_BITS - CHUNK_BITS);
+
+    private final boolean frozen; // true for a copy made by freeze, which is never changed
+    private Column[] columns = new Column[16]; // By attribute id, null for attributes no row has had
+    private final Rows<long[]> languages; // Languages mask of each row
+    private final Rows<byte[][]> titleKeys; // TitleCollator key of each row's title
+    private int capacity = 1 << PAGE_BITS; // Rows every column has room for, a whole number of pages
+    private int rowCount = 0; // Rows handed out so far, including freed ones
+    private int[] freeRows = new int[16]; // Freed rows, reused before new ones
+    private int freeCount = 0;
+
+
+    /**
+     * Creates an empty store.
+     */
+    public LibraryStore() {
+        frozen = false;
+        languages = new Rows<>(capacity, new long[CHUNK_ROWS], long[]::clone, 8);
+        titleKeys = new Rows<>(capacity, new byte[CHUNK_ROWS][], byte[][]::clone, 4); // Keys themselves never change
+    }
+
+    /**
+     * Constructor for a frozen copy of a store (see freeze).
+     */
+    private LibraryStore(LibraryStore store) {
+        frozen = true;
+        columns = new Column[store.columns.length];
+        for (int id = 0; id < columns.length; id++) {
+            columns[id] = (store.columns[id] == null) ? null : store.columns[id].freeze();
+        }
+        languages = store.languages.freeze();
+        titleKeys = store.titleKeys.freeze();
+        capacity = store.capacity;
+        rowCount = store.rowCount;
+    }
+
+
+    /**
+     * Stores a game's attributes in a new row.
+     *
+     * @param values The game's attributes.
+     * @param languageMask The game's languages mask (see Languages).
+     * @return The row.
+     */
+    public int addRow(Map<String, String> values, long languageMask) {
+        checkWritable();
+        int row;
+        if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            if (rowCount == capacity) {
+                grow(capacity * 2);
+            }
+            row = rowCount++;
+        }
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (entry.getValue() != null) {
+                column(AttributeKeys.idOf(entry.getKey()), true).set(row, entry.getValue());
+            }
+        }
+        if (languageMask != 0) {
+            languages.writableChunk(row)[row & CHUNK_MASK] = languageMask;
+        }
+        updateTitleKey(row, values.get(AttributeKeys.name(AttributeKeys.TITLE)));
+        return row;
+    }
+
+    /**
+     * Clears a row whose game left the library, so a later game can reuse it.
+     *
+     * @param row The row.
+     */
+    public void freeRow(int row) {
+        checkWritable();
+        for (Column column : columns) {
+            if (column != null) {
+                column.set(row, null);
+            }
+        }
+        if (getLanguages(row) != 0) {
+            languages.writableChunk(row)[row & CHUNK_MASK] = 0;
+        }
+        titleKeys.writableChunk(row)[row & CHUNK_MASK] = null;
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        }
+        freeRows[freeCount++] = row;
+    }
+
+    /**
+     * @param row A row.
+     * @param id An attribute id.
+     * @return The row's value of the attribute, or null if it has none.
+     */
+    public String get(int row, int id) {
+        Column column = column(id);
+        return (column == null) ? null : column.get(row);
+    }
+
+    /**
+     * Checks whether a row has a value of an attribute, without reading the value.
+     *
+     * @param row A row.
+     * @param id An attribute id.
+     * @return true if the row has a value of the attribute.
+     */
+    public boolean has(int row, int id) {
+        Column column = column(id);
+        return column != null && column.has(row);
+    }
+
+    /**
+     * Sets or removes a row's value of an attribute.
+     *
+     * @param row A row.
+     * @param id An attribute id.
+     * @param value The new value, or null to remove the attribute.
+     * @return The previous value, or null if the row had none.
+     */
+    public String set(int row, int id, String value) {
+        checkWritable();
+        Column column = column(id, value != null);
+        if (column == null) {
+            return null; // Removing an attribute no row has ever had
+        }
+        String previous = column.get(row);
+        column.set(row, value);
+        if (id == AttributeKeys.LANGUAGES) {
+            languages.writableChunk(row)[row & CHUNK_MASK] = Languages.maskOf(value);
+        } else if (id == AttributeKeys.TITLE) {
+            updateTitleKey(row, value);
+        }
+        return previous;
+    }
+
+    /**
+     * @param row A row.
+     * @param id An attribute id.
+     * @return The row's value of the attribute as a number, or NaN if it has none or it isn't a number.
+     */
+    public double number(int row, int id) {
+        Column column = column(id);
+        return (column == null) ? Double.NaN : column.number(row);
+    }
+
+    /**
+     * @param row A row.
+     * @param id An attribute id.
+     * @return The row's value of the attribute as a date (see Game.parseDate), or Game.NO_DATE if it has none or it
+     *         isn't a date.
+     */
+    public int date(int row, int id) {
+        Column column = column(id);
+        return (column == null) ? Game.NO_DATE : column.date(row);
+    }
+
+    /**
+     * Checks whether a row's value of an attribute sets a flag (see FeatureFlags.isSet), as checked when it was
+     * stored.
+     *
+     * @param row A row.
+     * @param id An attribute id.
+     * @return true if the row has a value of the attribute that isn't empty, "N/A", or a "no".
+     */
+    public boolean isFlagged(int row, int id) {
+        Column column = column(id);
+        return column != null && (column.kind(row) & FLAG) != 0;
+    }
+
+    /**
+     * Infers the type of an attribute from the values the store holds for it: the type most of them have, where
+     * whole numbers and decimals together count as numbers. Empty and "N/A" values don't count.
+     *
+     * @param id An attribute id, or -1 for a name that isn't registered.
+     * @return The attribute's type, TEXT if no row has a value for it.
+     */
+    public Type type(int id) {
+        Column column = column(id);
+        if (column == null) {
+            return Type.TEXT;
+        }
+        int[] counts = column.typeCounts;
+        int values = 0;
+        for (int count : counts) {
+            values += count;
+        }
+        int numbers = counts[Type.INTEGER.ordinal()] + counts[Type.DECIMAL.ordinal()];
+        if (values == 0) {
+            return Type.TEXT;
+        } else if (counts[Type.DATE.ordinal()] * 2 > values) {
+            return Type.DATE;
+        } else if (numbers * 2 > values) {
+            return (counts[Type.DECIMAL.ordinal()] == 0) ? Type.INTEGER : Type.DECIMAL;
+        } else if (counts[Type.BOOLEAN.ordinal()] * 2 > values) {
+            return Type.BOOLEAN;
+        }
+        return Type.TEXT;
+    }
+
+    /**
+     * Checks whether a row's value of an attribute fits the attribute's type (see type): a date in a DATE
+     * attribute, a whole number in an INTEGER one, any number in a DECIMAL one, a yes or no in a BOOLEAN one, and
+     * any value in a TEXT one.
+     *
+     * @param row A row.
+     * @param id An attribute id.
+     * @return true if the row has a value that fits, false if it has none, it is empty or "N/A", or it doesn't fit.
+     */
+    public boolean isValid(int row, int id) {
+        Column column = column(id);
+        int type = (column == null) ? 0 : column.kind(row) & TYPE_MASK;
+        if (type == 0) {
+            return false;
+        }
+        Type attributeType = type(id);
+        return attributeType == Type.TEXT || type - 1 == attributeType.ordinal()
+                || (attributeType == Type.DECIMAL && type - 1 == Type.INTEGER.ordinal());
+    }
+
+    /**
+     * Tells what type a value is and whether it sets a flag, the way the columns keep it for each value.
+     *
+     * @param value A value, or null for none.
+     * @param number The value parsed by Game.parseNumber.
+     * @param date The value parsed by Game.parseDate.
+     * @return The value's Type ordinal + 1 (0 if it is null, empty, or "N/A"), with the FLAG bit if it sets a flag.
+     */
+    static byte kindOf(String value, double number, int date) {
+        if (value == null) {
+            return 0;
+        }
+        String trimmed = value.trim();
+        if (trimmed.isEmpty() || trimmed.equalsIgnoreCase("N/A")) {
+            return 0;
+        }
+        Type type;
+        if (date != Game.NO_DATE) {
+            type = Type.DATE;
+        } else if (!Double.isNaN(number)) {
+            boolean whole = number == Math.rint(number) && trimmed.indexOf('.') < 0 && trimmed.indexOf('e') < 0
+                    && trimmed.indexOf('E') < 0;
+            type = whole ? Type.INTEGER : Type.DECIMAL;
+        } else if (trimmed.equalsIgnoreCase("yes") || trimmed.equalsIgnoreCase("no") || trimmed.equalsIgnoreCase("true")
+                || trimmed.equalsIgnoreCase("false") || trimmed.equalsIgnoreCase("y") || trimmed.equalsIgnoreCase("n")) {
+            type = Type.BOOLEAN;
+        } else {
+            type = Type.TEXT;
+        }
+        return (byte) ((type.ordinal() + 1) | (FeatureFlags.isSet(trimmed) ? FLAG : 0));
+    }
+
+    /**
+     * @param row A row.
+     * @return The row's languages mask (see Languages).
+     */
+    public long getLanguages(int row) {
+        return languages.chunk(row)[row & CHUNK_MASK];
+    }
+
+    /**
+     * @param row A row.
+     * @return The TitleCollator key of the row's title.
+     */
+    public byte[] titleKey(int row) {
+        return titleKeys.chunk(row)[row & CHUNK_MASK];
+    }
+
+    /**
+     * @return One more than the largest attribute id that may have values, for walking a row's attributes.
+     */
+    public int columnLimit() {
+        return columns.length;
+    }
+
+    /**
+     * Freezes the store's rows as they are now. Later changes to the store don't reach the frozen copy, and the copy
+     * can't be changed itself (its setters throw IllegalStateException).
+     * Called by LibraryHistory for each snapshot of the library.
+     *
+     * @return A read-only copy of the store, sharing every chunk that hasn't changed since.
+     */
+    public LibraryStore freeze() {
+        return new LibraryStore(this);
+    }
+
+    /**
+     * @return About how many bytes of heap the store's columns take.
+     */
+    public long heapBytes() {
+        long bytes = languages.heapBytes() + titleKeys.heapBytes() + freeRows.length * 4L;
+        for (int row = 0; row < rowCount; row++) {
+            byte[] key = titleKey(row);
+            if (key != null) {
+                bytes += 16 + key.length;
+            }
+        }
+        for (Column column : columns) {
+            if (column != null) {
+                bytes += column.heapBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Refuses changes to a frozen copy.
+     */
+    private void checkWritable() {
+        if (frozen) {
+            throw new IllegalStateException("A frozen copy of the library's store can't be changed");
+        }
+    }
+
+    /**
+     * Folds a row's title into its key, once each time the title is set. A row without a title gets the key of the
+     * "N/A" that Game.getAttribute reads for it.
+     *
+     * @param title The title just set, or null for none.
+     */
+    private void updateTitleKey(int row, String title) {
+        titleKeys.writableChunk(row)[row & CHUNK_MASK] = TitleCollator.keyOf((title == null) ? "N/A" : title);
+    }
+
+    /**
+     * Returns the column of an attribute, creating it if asked to.
+     */
+    private Column column(int id, boolean create) {
+        if (id >= columns.length) {
+            if (!create) {
+                return null;
+            }
+            columns = Arrays.copyOf(columns, Math.max(id + 1, columns.length * 2));
+        }
+        Column column = columns[id];
+        if (column == null && create) {
+            column = new DictionaryColumn(capacity);
+            columns[id] = column;
+        }
+        if (column instanceof DictionaryColumn && ((DictionaryColumn) column).isFull()) {
+            column = ((DictionaryColumn) column).pack(capacity, rowCount);
+            columns[id] = column;
+        }
+        return column;
+    }
+
+    /**
+     * @return The column of an attribute, or null if no row has had it or the id is -1.
+     */
+    private Column column(int id) {
+        return (id >= 0 && id < columns.length) ? columns[id] : null;
+    }
+
+    /**
+     * Gives every column room for the given number of rows.
+     */
+    private void grow(int newCapacity) {
+        for (Column column : columns) {
+            if (column != null) {
+                column.grow(newCapacity);
+            }
+        }
+        languages.grow(newCapacity);
+        titleKeys.grow(newCapacity);
+        capacity = newCapacity;
+    }
+
+    /**
+     * @return A chunk of rows all holding the given value.
+     */
+    private static int[] filled(int value) {
+        int[] chunk = new int[CHUNK_ROWS];
+        Arrays.fill(chunk, value);
+        return chunk;
+    }
+
+    /**
+     * @return A chunk of rows all holding the given value.
+     */
+    private static double[] filled(double value) {
+        double[] chunk = new double[CHUNK_ROWS];
+        Arrays.fill(chunk, value);
+        return chunk;
+    }
+
+
+    /**
+     * One value per row, in chunks of CHUNK_ROWS rows (A is the chunks' array type, e.g. int[]) gathered in pages of
+     * PAGE_CHUNKS chunks. Chunks no row was written to yet are all the same empty chunk, which is never written to.
+     * A frozen copy shares every page and chunk, and the first write to one afterwards copies it.
+     */
+    private static final class Rows<A> {
+        private Object[][] pages; // Page -> its chunks
+        private boolean[] ownedPages; // Pages no frozen copy shares, so they can be written to; null in a frozen copy
+        private long[] ownedChunks; // Page -> a bit for each of its chunks no frozen copy shares
+        private final A empty; // The chunk of rows that were never written to
+        private final UnaryOperator<A> copier; // Copies a chunk
+        private final int bytesPerRow;
+        private Rows<A> lastFrozen = null; // The frozen copy freeze made last, while nothing was written since
+
+        Rows(int capacity, A empty, UnaryOperator<A> copier, int bytesPerRow) {
+            this.empty = empty;
+            this.copier = copier;
+            this.bytesPerRow = bytesPerRow;
+            pages = new Object[0][];
+            ownedPages = new boolean[0];
+            ownedChunks = new long[0];
+            grow(capacity);
+        }
+
+        private Rows(Rows<A> rows) {
+            pages = rows.pages.clone();
+            empty = rows.empty;
+            copier = rows.copier;
+            bytesPerRow = rows.bytesPerRow;
+        }
+
+        /**
+         * @return The chunk holding the row, to read the row's value at row & CHUNK_MASK.
+         */
+        @SuppressWarnings("unchecked")
+        A chunk(int row) {
+            return (A) pages[row >>> PAGE_BITS][(row >>> CHUNK_BITS) & (PAGE_CHUNKS - 1)];
+        }
+
+        /**
+         * @return The chunk holding the row, to write the row's value to, copying it (and its page) first if a frozen
+         *         copy shares it.
+         */
+        @SuppressWarnings("unchecked")
+        A writableChunk(int row) {
+            int page = row >>> PAGE_BITS;
+            int chunk = (row >>> CHUNK_BITS) & (PAGE_CHUNKS - 1);
+            if (!ownedPages[page]) {
+                pages[page] = pages[page].clone();
+                ownedPages[page] = true;
+                ownedChunks[page] = 0;
+            }
+            if ((ownedChunks[page] & (1L << chunk)) == 0) {
+                pages[page][chunk] = copier.apply((A) pages[page][chunk]);
+                ownedChunks[page] |= 1L << chunk;
+            }
+            lastFrozen = null;
+            return (A) pages[page][chunk];
+        }
+
+        /**
+         * @return A read-only copy of the rows, sharing every page with these.
+         */
+        Rows<A> freeze() {
+            if (lastFrozen == null) {
+                lastFrozen = new Rows<>(this);
+                Arrays.fill(ownedPages, false); // The copy shares every page now
+            }
+            return lastFrozen;
+        }
+
+        /**
+         * Makes room for rows up to newCapacity, a whole number of pages.
+         */
+        void grow(int newCapacity) {
+            int oldPages = pages.length;
+            int newPages = newCapacity >>> PAGE_BITS;
+            pages = Arrays.copyOf(pages, newPages);
+            ownedPages = Arrays.copyOf(ownedPages, newPages);
+            ownedChunks = Arrays.copyOf(ownedChunks, newPages);
+            for (int page = oldPages; page < newPages; page++) {
+                pages[page] = new Object[PAGE_CHUNKS];
+                Arrays.fill(pages[page], empty);
+                ownedPages[page] = true;
+            }
+            lastFrozen = null; // The last frozen copy doesn't have the new pages
+        }
+
+        /**
+         * @return About how many bytes of heap the rows take, counting the empty chunk once.
+         */
+        long heapBytes() {
+            long chunkBytes = 16L + ((long) bytesPerRow << CHUNK_BITS);
+            long bytes = chunkBytes;
+            for (Object[] page : pages) {
+                bytes += 16 + 4L * PAGE_CHUNKS;
+                for (Object chunk : page) {
+                    if (chunk != empty) {
+                        bytes += chunkBytes;
+                    }
+                }
+            }
+            return bytes;
+        }
+    }
+
+
+    /**
+     * The values of one attribute, by row.
+     */
+    private abstract static class Column {
+        final int[] typeCounts; // Rows whose value is of each Type, by ordinal
+
+        Column() {
+            typeCounts = new int[TYPES.length];
+        }
+
+        /**
+         * Constructor for a frozen copy, which keeps the counts the column has now.
+         */
+        Column(Column column) {
+            typeCounts = column.typeCounts.clone();
+        }
+
+        /**
+         * @return The row's value, or null if it has none.
+         */
+        abstract String get(int row);
+
+        /**
+         * @return true if the row has a value.
+         */
+        boolean has(int row) {
+            return get(row) != null;
+        }
+
+        /**
+         * @return The row's value as a number, or NaN if it has none or it isn't one.
+         */
+        abstract double number(int row);
+
+        /**
+         * @return The row's value as a date, or Game.NO_DATE if it has none or it isn't one.
+         */
+        abstract int date(int row);
+
+        /**
+         * @return The row's value's kind (see kindOf), 0 if it has none.
+         */
+        abstract byte kind(int row);
+
+        /**
+         * Counts a value that entered (change 1) or left (change -1) the column under its type.
+         *
+         * @param kind The value's kind (see kindOf).
+         */
+        void count(byte kind, int change) {
+            int type = kind & TYPE_MASK;
+            if (type != 0) {
+                typeCounts[type - 1] += change;
+            }
+        }
+
+        /**
+         * Sets the row's value, or removes it if value is null.
+         */
+        abstract void set(int row, String value);
+
+        /**
+         * Makes room for rows up to newCapacity.
+         */
+        abstract void grow(int newCapacity);
+
+        /**
+         * @return A read-only copy of the column that later changes to this one don't reach, the last one again if
+         *         the column didn't change since.
+         */
+        abstract Column freeze();
+
+        /**
+         * @return About how many bytes of heap the column takes.
+         */
+        abstract long heapBytes();
+    }
+
+
+    /**
+     * A column whose distinct values are each stored once, with a 16-bit code per row (0 for no value). Each
+     * distinct value is parsed once, when it enters the dictionary.
+     */
+    private static final class DictionaryColumn extends Column {
+        private final Rows<char[]> codes;
+        private String[] values = new String[16]; // Code - 1 -> value, only appended to
+        private double[] numbers = new double[16]; // Code - 1 -> value as a number
+        private int[] dates = new int[16]; // Code - 1 -> value as a date
+        private byte[] kinds = new byte[16]; // Code - 1 -> value's kind (see kindOf)
+        private int size = 0; // Values in the dictionary
+        private final Map<String, Character> codeOf; // null in a frozen copy
+        private DictionaryColumn lastFrozen = null; // The copy freeze made last
+
+        DictionaryColumn(int capacity) {
+            codes = new Rows<>(capacity, new char[CHUNK_ROWS], char[]::clone, 2);
+            codeOf = new HashMap<>();
+        }
+
+        private DictionaryColumn(DictionaryColumn column, Rows<char[]> frozenCodes) {
+            super(column);
+            codes = frozenCodes;
+            values = column.values; // Later values go past the ones the copy's codes point to
+            numbers = column.numbers;
+            dates = column.dates;
+            kinds = column.kinds;
+            size = column.size;
+            codeOf = null;
+        }
+
+        @Override
+        Column freeze() {
+            Rows<char[]> frozenCodes = codes.freeze();
+            if (lastFrozen == null || lastFrozen.codes != frozenCodes || lastFrozen.size != size) {
+                lastFrozen = new DictionaryColumn(this, frozenCodes);
+            }
+            return lastFrozen;
+        }
+
+        @Override
+        String get(int row) {
+            int code = codes.chunk(row)[row & CHUNK_MASK];
+            return (code == 0) ? null : values[code - 1];
+        }
+
+        @Override
+        double number(int row) {
+            int code = codes.chunk(row)[row & CHUNK_MASK];
+            return (code == 0) ? Double.NaN : numbers[code - 1];
+        }
+
+        @Override
+        int date(int row) {
+            int code = codes.chunk(row)[row & CHUNK_MASK];
+            return (code == 0) ? Game.NO_DATE : dates[code - 1];
+        }
+
+        @Override
+        byte kind(int row) {
+            int code = codes.chunk(row)[row & CHUNK_MASK];
+            return (code == 0) ? 0 : kinds[code - 1];
+        }
+
+        @Override
+        void set(int row, String value) {
+            char code = 0;
+            if (value != null) {
+                Character known = codeOf.get(value);
+                if (known == null) {
+                    if (size == values.length) {
+                        values = Arrays.copyOf(values, size * 2);
+                        numbers = Arrays.copyOf(numbers, size * 2);
+                        dates = Arrays.copyOf(dates, size * 2);
+                        kinds = Arrays.copyOf(kinds, size * 2);
+                    }
+                    values[size] = value;
+                    numbers[size] = Game.parseNumber(value);
+                    dates[size] = Game.parseDate(value);
+                    kinds[size] = kindOf(value, numbers[size], dates[size]);
+                    known = (char) ++size;
+                    codeOf.put(value, known);
+                }
+                code = known;
+            }
+            int old = codes.chunk(row)[row & CHUNK_MASK];
+            if (old != code) { // Unchanged rows don't copy a shared chunk
+                if (old != 0) {
+                    count(kinds[old - 1], -1);
+                }
+                if (code != 0) {
+                    count(kinds[code - 1], 1);
+                }
+                codes.writableChunk(row)[row & CHUNK_MASK] = code;
+            }
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            codes.grow(newCapacity);
+        }
+
+        /**
+         * @return true once the dictionary can't take more values, so the column should be packed.
+         */
+        boolean isFull() {
+            return size >= DICTIONARY_LIMIT;
+        }
+
+        /**
+         * @return A packed column with the same values.
+         */
+        PackedColumn pack(int capacity, int rowCount) {
+            PackedColumn packed = new PackedColumn(capacity);
+            for (int row = 0; row < rowCount; row++) {
+                String value = get(row);
+                if (value != null) {
+                    packed.set(row, value);
+                }
+            }
+            return packed;
+        }
+
+        @Override
+        long heapBytes() {
+            long bytes = codes.heapBytes() + size * 77L; // Dictionary entries: the String, its map entry, and parsed values
+            for (int code = 0; code < size; code++) {
+                bytes += values[code].length();
+            }
+            return bytes;
+        }
+    }
+
+
+    /**
+     * A column whose values are copied back to back into one char array. A value is only ever appended to the
+     * array, never written over an old one, since frozen copies may still read the old one. Parsed values are
+     * kept per row, in chunks that stay the shared empty chunk while no row in them is a number or a date (most
+     * packed columns are titles and notes).
+     */
+    private static final class PackedColumn extends Column {
+        private char[] chars = new char[4096];
+        private final Rows<int[]> offsets; // Start of each row's value in chars
+        private final Rows<int[]> lengths; // Length of each row's value, -1 for no value
+        private final Rows<double[]> numbers; // Each row's value as a number
+        private final Rows<int[]> dates; // Each row's value as a date
+        private final Rows<byte[]> kinds; // Each row's value's kind (see kindOf)
+        private int used = 0; // Chars in use, including values that were replaced
+        private int garbage = 0; // Chars of values that were replaced or removed
+        private int capacity;
+        private String[] decoded = null; // Each row's value once get made it a String, dropped when set; null until then and in a frozen copy
+        private final boolean frozen; // Whether this is a frozen copy
+        private PackedColumn lastFrozen = null; // The copy freeze made last
+
+        PackedColumn(int capacity) {
+            this.capacity = capacity;
+            offsets = new Rows<>(capacity, new int[CHUNK_ROWS], int[]::clone, 4);
+            lengths = new Rows<>(capacity, filled(-1), int[]::clone, 4);
+            numbers = new Rows<>(capacity, filled(Double.NaN), double[]::clone, 8);
+            dates = new Rows<>(capacity, filled(Game.NO_DATE), int[]::clone, 4);
+            kinds = new Rows<>(capacity, new byte[CHUNK_ROWS], byte[]::clone, 1);
+            frozen = false;
+        }
+
+        private PackedColumn(PackedColumn column) {
+            super(column);
+            chars = column.chars; // Later values are appended past the ones the copy's offsets point to
+            offsets = column.offsets.freeze();
+            lengths = column.lengths.freeze();
+            numbers = column.numbers.freeze();
+            dates = column.dates.freeze();
+            kinds = column.kinds.freeze();
+            used = column.used;
+            capacity = column.capacity;
+            frozen = true; // Read by other threads, so it keeps no Strings
+        }
+
+        @Override
+        Column freeze() {
+            PackedColumn last = lastFrozen;
+            if (last == null || last.chars != chars || last.used != used || last.offsets != offsets.freeze()
+                    || last.lengths != lengths.freeze() || last.numbers != numbers.freeze() || last.dates != dates.freeze()
+                    || last.kinds != kinds.freeze()) {
+                lastFrozen = new PackedColumn(this);
+            }
+            return lastFrozen;
+        }
+
+        @Override
+        String get(int row) {
+            int length = lengths.chunk(row)[row & CHUNK_MASK];
+            if (length < 0) {
+                return null;
+            }
+            if (frozen) {
+                return new String(chars, offsets.chunk(row)[row & CHUNK_MASK], length);
+            }
+            if (decoded == null) {
+                decoded = new String[capacity];
+            }
+            String value = decoded[row];
+            if (value == null) { // Only made once per value, however often the list, the search, or an export read it
+                value = new String(chars, offsets.chunk(row)[row & CHUNK_MASK], length);
+                decoded[row] = value;
+            }
+            return value;
+        }
+
+        @Override
+        boolean has(int row) {
+            return lengths.chunk(row)[row & CHUNK_MASK] >= 0;
+        }
+
+        @Override
+        double number(int row) {
+            return numbers.chunk(row)[row & CHUNK_MASK];
+        }
+
+        @Override
+        int date(int row) {
+            return dates.chunk(row)[row & CHUNK_MASK];
+        }
+
+        @Override
+        byte kind(int row) {
+            return kinds.chunk(row)[row & CHUNK_MASK];
+        }
+
+        @Override
+        void set(int row, String value) {
+            int old = lengths.chunk(row)[row & CHUNK_MASK];
+            if (value == null && old < 0) {
+                return; // Nothing to remove
+            }
+            setParsed(row, value);
+            if (decoded != null) {
+                decoded[row] = null;
+            }
+            if (old > 0) {
+                garbage += old;
+            }
+            if (value == null) {
+                lengths.writableChunk(row)[row & CHUNK_MASK] = -1;
+                return;
+            }
+            if (used + value.length() > chars.length) {
+                if (garbage > used / 2) {
+                    compact();
+                }
+                if (used + value.length() > chars.length) {
+                    chars = Arrays.copyOf(chars, Math.max(chars.length * 2, used + value.length()));
+                }
+            }
+            value.getChars(0, value.length(), chars, used);
+            offsets.writableChunk(row)[row & CHUNK_MASK] = used;
+            lengths.writableChunk(row)[row & CHUNK_MASK] = value.length();
+            used += value.length();
+        }
+
+        /**
+         * Parses a row's new value (null for none) into the row's number, date, and kind, leaving chunks that
+         * already hold them alone.
+         */
+        private void setParsed(int row, String value) {
+            double number = (value == null) ? Double.NaN : Game.parseNumber(value);
+            int date = (value == null) ? Game.NO_DATE : Game.parseDate(value);
+            if (Double.compare(numbers.chunk(row)[row & CHUNK_MASK], number) != 0) {
+                numbers.writableChunk(row)[row & CHUNK_MASK] = number;
+            }
+            if (dates.chunk(row)[row & CHUNK_MASK] != date) {
+                dates.writableChunk(row)[row & CHUNK_MASK] = date;
+            }
+            byte kind = kindOf(value, number, date);
+            byte old = kinds.chunk(row)[row & CHUNK_MASK];
+            count(old, -1);
+            count(kind, 1);
+            if (old != kind) {
+                kinds.writableChunk(row)[row & CHUNK_MASK] = kind;
+            }
+        }
+
+        /**
+         * Copies the live values to the front of a new array, dropping replaced ones. The old array is left as it
+         * is for the frozen copies that read it.
+         */
+        private void compact() {
+            char[] compacted = new char[chars.length];
+            int position = 0;
+            for (int row = 0; row < capacity; row++) {
+                int length = lengths.chunk(row)[row & CHUNK_MASK];
+                if (length > 0) {
+                    int offset = offsets.chunk(row)[row & CHUNK_MASK];
+                    System.arraycopy(chars, offset, compacted, position, length);
+                    if (offset != position) {
+                        offsets.writableChunk(row)[row & CHUNK_MASK] = position;
+                    }
+                    position += length;
+                }
+            }
+            chars = compacted;
+            used = position;
+            garbage = 0;
+        }
+
+        @Override
+        void grow(int newCapacity) {
+            offsets.grow(newCapacity);
+            lengths.grow(newCapacity);
+            numbers.grow(newCapacity);
+            dates.grow(newCapacity);
+            kinds.grow(newCapacity);
+            if (decoded != null) {
+                decoded = Arrays.copyOf(decoded, newCapacity);
+            }
+            capacity = newCapacity;
+        }
+
+        @Override
+        long heapBytes() {
+            long bytes = chars.length * 2L + offsets.heapBytes() + lengths.heapBytes();
+            bytes += numbers.heapBytes() + dates.heapBytes() + kinds.heapBytes();
+            if (decoded != null) {
+                bytes += decoded.length * 4L;
+                for (String value : decoded) {
+                    bytes += (value == null) ? 0 : 40 + value.length(); // The String and its bytes
+                }
+            }
+            return bytes;
+        }
+    }
+}
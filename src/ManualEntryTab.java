@@ -25,7 +25,8 @@
  * Helper methods overview:
  * - buildUI: Builds the layout and buttons for the manual entry tab.
  * - addGameEntry: Adds a new game entry form to the list.
- * - submitEntries: Submits all entered game data to the library and updates the game list.
+ * - submitEntries: Submits all entered game data to the library and updates the game list. Each submission is one
+ *   step the Undo button can take back (see LibraryHistory).
  * - getTab: Returns the Tab instance for manual game entry.
  * 
  * Nested class:
@@ -114,8 +115,14 @@ public class ManualEntryTab {
         submitTooltip.setHideDelay(javafx.util.Duration.seconds(3)); // Tooltip fades after 3 seconds
         Tooltip.install(submitButton, submitTooltip);
 
+        // Create the 'Undo' and 'Redo' buttons, which take back (or put back) the latest submission, edit, or deletion
+        Button undoButton = new Button("Undo");
+        undoButton.setOnAction(e -> GUIDriver.undoLastChange());
+        Button redoButton = new Button("Redo");
+        redoButton.setOnAction(e -> GUIDriver.redoLastChange());
+
         // HBox to hold the buttons
-        HBox buttonBox = new HBox(10, addButton, submitButton);
+        HBox buttonBox = new HBox(10, addButton, submitButton, undoButton, redoButton);
         buttonBox.setPadding(new Insets(10));
 
         // Set the ScrollPane in the center and the buttonBox at the bottom
@@ -158,6 +165,7 @@ public class ManualEntryTab {
         List<GameEntry> validEntries = new ArrayList<>(); // Tracks valid entries to be submitted
         List<GameEntry> invalidEntries = new ArrayList<>(); // Tracks invalid entries that need correction
         int submittedCount = 0; // Tracks the number of successfully submitted entries      
+        boolean duplicatesUpdated = false; // Set when a submitted game updated a game already in the library
 
         // Phase 1: Validate each entry and separate them into valid and invalid lists
         for (GameEntry gameEntry : gameEntries) {
@@ -191,17 +199,22 @@ public class ManualEntryTab {
             }
         }   
 
-        // Phase 2: Process valid entries
+        // Phase 2: Process valid entries, as one undo step
+        LibraryHistory.Snapshot before = GUIDriver.libraryIndex.getHistory().snapshot();
         for (GameEntry validEntry : validEntries) {
             Map<String, String> attributes = validEntry.collectData();
             Game game = new Game(attributes);   
 
-            // Avoid adding duplicate entries to the library
-            boolean isDuplicate = library.stream()
-                .anyMatch(existingGame -> existingGame.equals(game)); // Use equals method to compare games
-            if (!isDuplicate) {
-                library.add(game);
-                gameList.getChildren().add(GUIDriver.createGameItem(game.getAttribute("title"), game.toString()));
+            // Add the game through the library index, which catches duplicates by title and platform
+            switch (GUIDriver.libraryIndex.add(game)) {
+                case ADDED:
+                    gameList.getChildren().add(GUIDriver.createGameItem(game, game.toString()));
+                    break;
+                case UPDATED:
+                    duplicatesUpdated = true; // The existing game's item in the game list is out of date
+                    break;
+                default:
+                    break;
             }   
 
             // Remove the valid entry from the UI
@@ -209,6 +222,11 @@ public class ManualEntryTab {
             submittedCount++;
         }   
 
+        if (duplicatesUpdated) {
+            GUIDriver.refreshLibraryView(); // Show the updated attributes of the existing games
+        }
+        GUIDriver.libraryIndex.getHistory().record("Add " + submittedCount + " game(s)", before);
+
         // Phase 3: Update the internal state
         gameEntries.clear(); // Clear the current gameEntries list
         gameEntries.addAll(invalidEntries); // Retain only invalid entries  
@@ -17,6 +17,11 @@
  *   PlayStation 4 and 5, ensuring that the GameLoom library focuses solely on games.
  * - **Consistent Field Structure**: Fields like `multiplayer`, `singleplayer`, and `languages` are 
  *   mapped to standardized labels, enhancing uniformity across the library.
+ * - **Column Plans**: `compile` resolves a file's headers once into a `ColumnPlan`, which the importers apply
+ *   to every row instead of searching the alias lists again for each one.
+ * - **Alias Classification**: Headers are matched against every alias list at once by `AliasClassifier`, which
+ *   compiles the lists (or the user's aliases file) into a single Aho-Corasick automaton. The results are kept
+ *   across imports, and between sessions, by `HeaderCache`.
  * 
  * Constant Lists:
  * - **game**: Variations for game names.
@@ -37,18 +42,22 @@
 
 
 import java.util.*;
+import java.util.regex.Pattern;
 
 public class Normalizer {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+"); // Compiled once for normalizeKey, which runs for every filter, sort, and edit
+
     /*Lists of all the different versions of a normalized attribute*/
     //Since these lists won't change once we make them I just made them all constant String arrays, feel free to change if there's a more efficient way
-    private static final String title[] = {"game", "name", "title"};
-    private static final String hours_played[] = {"hours"};
-    private static final String last_played[] = {"last played", "last-played", "last_played"};
-    private static final String release_date[] = {"release"};
-    private static final String captions[] = {"captions", "subtitles"};
-    private static final String multiplayer[] = {"multiplayer", "multi-player", "multi player", "coop", "co-op", "co op"};
-    private static final String singleplayer[] = {"singleplayer", "single player", "single-player", "solo player"};
-    private static final String languages[] = {"english", "spanish", "french", "czech", "chinese", "danish", "dutch", "finnish",
+    //They are the default contents of the aliases file that AliasClassifier compiles
+    protected static final String title[] = {"game", "name", "title"};
+    protected static final String hours_played[] = {"hours"};
+    protected static final String last_played[] = {"last played", "last-played", "last_played"};
+    protected static final String release_date[] = {"release"};
+    protected static final String captions[] = {"captions", "subtitles"};
+    protected static final String multiplayer[] = {"multiplayer", "multi-player", "multi player", "coop", "co-op", "co op"};
+    protected static final String singleplayer[] = {"singleplayer", "single player", "single-player", "solo player"};
+    protected static final String languages[] = {"english", "spanish", "french", "czech", "chinese", "danish", "dutch", "finnish",
                                                 "german", "greek", "hungarian", "indonesian", "italian", "japanese", "korean",
                                                 "norwegian", "polish", "portuguese", "romanian", "russian", "thai", "turkish", 
                                                 "ukrainian", "vietnamese", "bulgarian", "swedish"};
@@ -80,38 +89,15 @@ public class Normalizer {
         for(String key: attributes.keySet()){
             String value = attributes.get(key);
 
-            //Normalizes attributes that are for the game's name. The condition for the attribute not containing id is to prevent the program from considering "game id"
-            //The last condition is to make sure that once we've found the game's title, no other attributes with the word "title" in it will be considered
-            if(contains(key, title) && !key.contains("id") && !normAttributes.containsKey("title")){ 
-                normAttributes = populateNorm(normAttributes, "title", key, value);
-            }
-            else if(contains(key, hours_played)){
-                normAttributes = populateNorm(normAttributes, "hours_played", key, value);
-            }
-            else if(contains(key, last_played)){
-                normAttributes = populateNorm(normAttributes, "last_played", key, value);
-            }
-            else if(contains(key, release_date)){
-                normAttributes = populateNorm(normAttributes, "release_date", key, value);
-            }
-            else if(contains(key, captions)){
-                normAttributes = populateNorm(normAttributes, "captions", key, value);
-            }
-            else if(contains(key, multiplayer)){
-                normAttributes = populateNorm(normAttributes, "multiplayer", key, value);
-            }
-            else if(contains(key, singleplayer)){
-                normAttributes = populateNorm(normAttributes, "singleplayer", key, value);
-            }
-            else if(contains(key, languages)){
-                normAttributes = populateNorm(normAttributes, "languages", key, value);
+            //Once we've found the game's title, no other attributes with the word "title" in it will be considered
+            String normKey = normalizedKeyFor(key, !normAttributes.containsKey("title"));
+            if(normKey != null){
+                normAttributes = populateNorm(normAttributes, normKey, key, value);
             }
             else{
                 normAttributes.put(key, attributes.get(key)); //Attribute has no normalized equivalent, add it by itself
                 //If the compiled attribute list doesn't already contain this key, add it
-                if(!GUIDriver.attributes.contains(key)){
-                    GUIDriver.attributes.add(key);
-                }
+                registerAttribute(key);
             }
         }
 
@@ -119,21 +105,28 @@ public class Normalizer {
     }
 
     /**
-     * Checks if the given attribute contains some version in the given normalized list.
+     * Finds the normalized attribute an un-normalized attribute belongs to.
      * 
-     * @param attribute - An un-normalized attribute
-     * @param normalized - One of the constant lists of words we can normalize
-     * @return Whether or not the attribute contains one of the words in the given array
+     * @param key - An un-normalized attribute
+     * @param titleOpen - Whether the game's title still hasn't been found, so the attribute may be considered as the title
+     * @return The normalized attribute, or null if the attribute has no normalized equivalent
      */
-    private static boolean contains(String attribute, String[] normalized){
-        //I chose to use contains for the attribute names because it prevents us from having to consider all the versions of "title", "game-name", "game name", "game_name", etc.
-        //Might cause its own problems though
-        for(String word: normalized){
-            if(attribute.contains(word)){
-                return true;
-            }
-        }
-        return false;
+    private static String normalizedKeyFor(String key, boolean titleOpen){
+        //One pass over the key finds the aliases of every attribute; the classifier then applies the precedence
+        //title (unless the key contains "id", to skip "game id"), hours_played, last_played, release_date, captions,
+        //multiplayer, singleplayer, languages. Keys seen by earlier imports come straight from the header cache.
+        return HeaderCache.getActive().lookup(key).keyFor(titleOpen);
+    }
+
+    /**
+     * Compiles the normalization of a file's headers into a ColumnPlan, so the alias lists only have to be
+     * searched once per file instead of once per row.
+     * 
+     * @param headers - The cleaned headers of an imported file
+     * @return A plan that normalizes the rows of that file
+     */
+    protected static ColumnPlan compile(String[] headers){
+        return new ColumnPlan(headers);
     }
 
     /**
@@ -153,6 +146,23 @@ public class Normalizer {
         return false;
     }
 
+    /**
+     * Checks if the given value is equivalent to any of the versions in the given list, ignoring case.
+     * Same as equals(value.toLowerCase(), normalized) for the lowercase lists above, without creating the lowercase copy.
+     * 
+     * @param value - An un-normalized value
+     * @param normalized - One of the constant lists of words
+     * @return Whether or not the value is equivalent to one of the words in the given array
+     */
+    private static boolean equalsIgnoreCase(String value, String[] normalized){
+        for(String word: normalized){
+            if(value.equalsIgnoreCase(word)){
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Adds the normalized version of an attribute to the normalized list, or edits the attribute if its already in the list
      * 
@@ -186,14 +196,26 @@ public class Normalizer {
                 normA.put(normKey, value);
             }
 
-            if(!GUIDriver.attributes.contains(normKey)){
-                GUIDriver.attributes.add(normKey);
-            }
+            registerAttribute(normKey);
         }
 
         return normA;
     }
 
+    /**
+     * Adds an attribute to the compiled attribute list (the SchemaRegistry's columns) if it isn't already there.
+     * Safe to call from the threads of a parallel import, which normalize rows from several threads at once.
+     * The id column of an exported library (Game.ID_KEY) is never registered.
+     * 
+     * @param key - The attribute to register
+     */
+    protected static void registerAttribute(String key){
+        if(key.equals(Game.ID_KEY)){
+            return; //The id column of an export is read into each game's id, it isn't an attribute
+        }
+        SchemaRegistry.getActive().register(key);
+    }
+
     /**
      * Normalizes the given key to match internal labeling conventions.
      * Converts the key to all lowercase and replaces spaces with underscores.
@@ -207,7 +229,180 @@ public class Normalizer {
         if (key == null || key.isEmpty()) {
             return key; // Return as-is if the key is null or empty
         }
-        return key.trim().toLowerCase().replaceAll("\\s+", "_");
+        return WHITESPACE.matcher(key.trim().toLowerCase()).replaceAll("_");
     }
-}
 
+    /**
+     * A file's header resolved once into the normalized attribute each column feeds, and whether the column's
+     * value is merged into that attribute (like populateNorm) or stored as is. Applying the plan to a row gives
+     * exactly the same attributes, in the same order, as building the row's map and calling normalize on it.
+     * 
+     * Columns that could be the title only become the title when no earlier column of the same row has set it,
+     * so they also carry the attribute they feed otherwise.
+     */
+    protected static class ColumnPlan {
+        private final Column[] columns;
+        private final String[] targets; // Output attribute names, by target index
+        private final boolean[] registered; // Whether each target has been added to the compiled attribute list by this plan
+        private final int titleTarget;
+        private final int languagesTarget; // Target index of "languages", or -1 if no column feeds it
+
+        /**
+         * One distinct header of the file.
+         */
+        private static class Column {
+            final String key; // The un-normalized header, added to flag attributes like languages when its value is a checkmark
+            final int[] sources; // Value indices with this header, in order (more than one if the header repeats)
+            final boolean titleCandidate; // Whether the column is the title if no earlier column set it
+            final int target; // The attribute the column feeds when it isn't the title
+            final boolean merge; // Whether values are merged into the target (populateNorm) instead of stored as is
+            final long languages; // Languages mask of the header, added when a checkmark adds the header to languages
+
+            Column(String key, int[] sources, boolean titleCandidate, int target, boolean merge){
+                this.key = key;
+                this.sources = sources;
+                this.titleCandidate = titleCandidate;
+                this.target = target;
+                this.merge = merge;
+                this.languages = Languages.maskOf(key);
+            }
+        }
+
+        private ColumnPlan(String[] headers){
+            // Repeated headers collapse into one column whose value comes from the last copy, like a map put would
+            Map<String, List<Integer>> sourcesByKey = new LinkedHashMap<>();
+            for(int j = 0; j < headers.length; j++){
+                sourcesByKey.computeIfAbsent(headers[j], k -> new ArrayList<>()).add(j);
+            }
+
+            Map<String, Integer> targetIndex = new LinkedHashMap<>();
+            targetIndex.put("title", 0);
+            List<Column> columnList = new ArrayList<>();
+            for(Map.Entry<String, List<Integer>> entry : sourcesByKey.entrySet()){
+                String key = entry.getKey();
+                int[] sources = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+                HeaderCache.Classification classification = HeaderCache.getActive().lookup(key);
+                boolean titleCandidate = classification.isTitleCandidate();
+                String normKey = classification.keyFor(false);
+                String target = (normKey != null) ? normKey : key; // Attributes with no normalized equivalent keep their own name
+                int index = targetIndex.computeIfAbsent(target, k -> targetIndex.size());
+                columnList.add(new Column(key, sources, titleCandidate, index, normKey != null));
+            }
+
+            this.columns = columnList.toArray(new Column[0]);
+            this.targets = targetIndex.keySet().toArray(new String[0]);
+            for(int i = 0; i < targets.length; i++){
+                targets[i] = AttributeKeys.intern(targets[i]); // So Game.getAttribute(int) finds the keys by reference
+            }
+            this.registered = new boolean[targets.length];
+            this.titleTarget = 0;
+            this.languagesTarget = targetIndex.getOrDefault("languages", -1);
+        }
+
+        /**
+         * Normalizes one row of the file.
+         * 
+         * @param values - The trimmed values of the row, in header order
+         * @param valueCount - How many values the row has (headers past it are missing from the row)
+         * @return A mapping of normalized attributes and their values
+         */
+        protected Map<String, String> apply(String[] values, int valueCount){
+            return apply(values, valueCount, null);
+        }
+
+        /**
+         * Normalizes one row of the file like apply(values, valueCount), also working out the row's languages mask
+         * (see Languages) from the columns that fed "languages", so it never has to be parsed back out of the text.
+         * 
+         * @param values - The trimmed values of the row, in header order
+         * @param valueCount - How many values the row has (headers past it are missing from the row)
+         * @param languages - Receives the row's languages mask in its first element, or null if it isn't needed
+         * @return A mapping of normalized attributes and their values
+         */
+        protected Map<String, String> apply(String[] values, int valueCount, long[] languages){
+            String[] out = new String[targets.length]; // Value of each target, null until the row sets it
+            StringBuilder[] merged = null; // Values of targets that more than one column fed, created on first need
+            int[] order = new int[targets.length]; // Targets in the order the row set them
+            int size = 0;
+            long languageMask = 0;
+
+            for(Column column : columns){
+                // The value comes from the last copy of the header that the row reaches
+                int source = -1;
+                for(int index : column.sources){
+                    if(index < valueCount){
+                        source = index;
+                    }
+                }
+                if(source < 0){
+                    continue; // The row ends before this column
+                }
+                String value = values[source];
+
+                boolean isTitle = column.titleCandidate && out[titleTarget] == null;
+                int target = isTitle ? titleTarget : column.target;
+                if(!isTitle && !column.merge){
+                    if(out[target] == null){
+                        order[size++] = target;
+                    }
+                    out[target] = value; //Attribute has no normalized equivalent, add it by itself
+                    if(merged != null){
+                        merged[target] = null; // The value replaces whatever earlier columns put there
+                    }
+                    if(target == languagesTarget){
+                        languageMask = Languages.maskOf(value); // E.g. the "languages" column of a GameLoom export
+                    }
+                    register(target);
+                    continue;
+                }
+
+                // Same as populateNorm
+                boolean checkmark = equalsIgnoreCase(value, trueValues);
+                String added = checkmark ? column.key : (equalsIgnoreCase(value, empty) ? null : value);
+                if(added != null && target == languagesTarget){
+                    languageMask |= checkmark ? column.languages : Languages.maskOf(value);
+                }
+                if(out[target] != null){ //Normalized attribute is already in the row
+                    if(added != null){
+                        // Appended in a builder, since a row can check dozens of language columns
+                        if(merged == null){
+                            merged = new StringBuilder[targets.length];
+                        }
+                        if(merged[target] == null){
+                            merged[target] = new StringBuilder(out[target]);
+                        }
+                        merged[target].append(", ").append(added);
+                    }
+                }
+                else{
+                    if(added != null){
+                        out[target] = added;
+                        order[size++] = target;
+                    }
+                    register(target);
+                }
+            }
+
+            if(languages != null){
+                languages[0] = languageMask;
+            }
+            Map<String, String> normAttributes = new LinkedHashMap<>();
+            for(int i = 0; i < size; i++){
+                int target = order[i];
+                String value = (merged != null && merged[target] != null) ? merged[target].toString() : out[target];
+                normAttributes.put(targets[target], value);
+            }
+            return normAttributes;
+        }
+
+        /**
+         * Adds a target to the compiled attribute list the first time this plan uses it.
+         */
+        private void register(int target){
+            if(!registered[target]){
+                registered[target] = true;
+                registerAttribute(targets[target]);
+            }
+        }
+    }
+}
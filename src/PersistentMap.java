@@ -0,0 +1,341 @@
+/**
+ * The PersistentMap class is an immutable map from long keys (game ids) to values, stored as a hash array mapped
+ * trie. Changing a map never modifies it: with and without return a new map that shares every part of the trie the
+ * change didn't touch with the old one, so a change costs O(log n) time and memory however large the map is, and
+ * every earlier version stays valid and unchanged.
+ *
+ * The trie splits the hashed key 5 bits at a time, so each node has up to 32 children and a map of 100,000 games is
+ * about 4 levels deep. Nodes only hold the children they use (a 32-bit bitmap says which ones), and keys are hashed
+ * with a one-to-one mix, so two keys never share a hash and the trie needs no collision lists.
+ *
+ * Because versions share their unchanged parts, diff can tell what changed between two versions of a map by only
+ * visiting the parts that differ, skipping shared subtrees by reference.
+ *
+ * Example of how this class works:
+ *     PersistentMap<String> before = PersistentMap.empty();
+ *     PersistentMap<String> after = before.with(42L, "Hades");
+ *     before.get(42L);   // null, before is unchanged
+ *     after.get(42L);    // "Hades"
+ *
+ * Note: Since maps never change, they can be read from any thread without locks once they are handed over safely
+ * (e.g., through a volatile field).
+ *
+ * @see LibraryHistory
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.util.HashMap;
+import java.util.Map;
+
+public final class PersistentMap<V> {
+    private static final int BITS = 5; // Bits of the hash used per level
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentMap<Object> EMPTY = new PersistentMap<>(null, 0);
+
+    private final Object root; // A Node, a Leaf, or null for the empty map
+    private final int size;
+
+
+    /**
+     * Receives the entries of a map.
+     */
+    public interface Visitor<V> {
+        void visit(long key, V value);
+    }
+
+    /**
+     * Receives the keys whose values differ between two maps.
+     */
+    public interface Change<V> {
+        /**
+         * @param key The key.
+         * @param before The key's value in the first map, or null if it had none.
+         * @param after The key's value in the second map, or null if it has none.
+         */
+        void changed(long key, V before, V after);
+    }
+
+
+    private PersistentMap(Object root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return The empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentMap<V> empty() {
+        return (PersistentMap<V>) EMPTY;
+    }
+
+
+    /**
+     * @return The number of keys in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key A key.
+     * @return The key's value, or null if the map doesn't have the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long hash = mix(key);
+        Object slot = root;
+        for (int shift = 0; slot instanceof Node; shift += BITS) {
+            Node node = (Node) slot;
+            int bit = bit(hash, shift);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            slot = node.slots[node.index(bit)];
+        }
+        return (slot != null && ((Leaf<V>) slot).key == key) ? ((Leaf<V>) slot).value : null;
+    }
+
+    /**
+     * @param key A key.
+     * @param value The key's new value (not null).
+     * @return A map with the key set to the value, or this map if the key already has that very value.
+     */
+    public PersistentMap<V> with(long key, V value) {
+        Leaf<V> leaf = new Leaf<>(key, value);
+        if (root == null) {
+            return new PersistentMap<>(leaf, 1);
+        }
+        boolean[] added = {false};
+        Object newRoot = insert(root, leaf, mix(key), 0, added);
+        return (newRoot == root) ? this : new PersistentMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * @param key A key.
+     * @return A map without the key, or this map if it doesn't have the key.
+     */
+    public PersistentMap<V> without(long key) {
+        if (root == null) {
+            return this;
+        }
+        Object newRoot = remove(root, key, mix(key), 0);
+        return (newRoot == root) ? this : new PersistentMap<>(newRoot, size - 1);
+    }
+
+    /**
+     * Visits every entry of the map, in no particular order.
+     *
+     * @param visitor Receives each key and its value.
+     */
+    public void forEach(Visitor<V> visitor) {
+        visitAll(root, visitor);
+    }
+
+    /**
+     * Finds every key whose value differs between two maps (compared by reference), visiting only the parts of the
+     * tries the maps don't share. Two versions of a map that are a few changes apart are compared in O(changes * log n).
+     *
+     * @param from The first map.
+     * @param to The second map.
+     * @param change Receives each key that was added, removed, or given another value.
+     */
+    public static <V> void diff(PersistentMap<V> from, PersistentMap<V> to, Change<V> change) {
+        diff(from.root, to.root, 0, change);
+    }
+
+
+    /**
+     * Puts a leaf (whose key has the given hash) in the subtree at slot, returning the new subtree (slot itself if
+     * nothing changed).
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Object insert(Object slot, Leaf<V> leaf, long hash, int shift, boolean[] added) {
+        if (slot instanceof Leaf) {
+            Leaf<V> existing = (Leaf<V>) slot;
+            if (existing.key == leaf.key) {
+                return (existing.value == leaf.value) ? existing : leaf;
+            }
+            added[0] = true;
+            return split(existing, mix(existing.key), leaf, hash, shift);
+        }
+        Node node = (Node) slot;
+        int bit = bit(hash, shift);
+        int index = node.index(bit);
+        if ((node.bitmap & bit) == 0) {
+            added[0] = true;
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, index);
+            slots[index] = leaf;
+            System.arraycopy(node.slots, index, slots, index + 1, node.slots.length - index);
+            return new Node(node.bitmap | bit, slots);
+        }
+        Object child = node.slots[index];
+        Object newChild = insert(child, leaf, hash, shift + BITS, added);
+        return (newChild == child) ? node : node.replace(index, newChild);
+    }
+
+    /**
+     * Builds the smallest subtree holding two leaves whose hashes agree on the bits before shift.
+     */
+    private static Object split(Leaf<?> a, long hashA, Leaf<?> b, long hashB, int shift) {
+        int bitA = bit(hashA, shift);
+        int bitB = bit(hashB, shift);
+        if (bitA == bitB) {
+            return new Node(bitA, new Object[] {split(a, hashA, b, hashB, shift + BITS)});
+        }
+        // Hashes are unique, so the leaves part ways by the last level at the latest
+        return new Node(bitA | bitB, (Integer.compareUnsigned(bitA, bitB) < 0) ? new Object[] {a, b} : new Object[] {b, a});
+    }
+
+    /**
+     * Removes a key from the subtree at slot, returning the new subtree (slot itself if the key isn't in it, null if
+     * nothing is left). A node left with a single leaf is replaced by the leaf, so the trie stays as shallow as it was
+     * before the leaf's neighbour was added.
+     */
+    private static Object remove(Object slot, long key, long hash, int shift) {
+        if (slot instanceof Leaf) {
+            return (((Leaf<?>) slot).key == key) ? null : slot;
+        }
+        Node node = (Node) slot;
+        int bit = bit(hash, shift);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int index = node.index(bit);
+        Object child = node.slots[index];
+        Object newChild = remove(child, key, hash, shift + BITS);
+        if (newChild == child) {
+            return node;
+        }
+        if (newChild != null) {
+            if (node.slots.length == 1 && newChild instanceof Leaf) {
+                return newChild; // Only one leaf left under this node, move it up
+            }
+            return node.replace(index, newChild);
+        }
+        if (node.slots.length == 1) {
+            return null;
+        }
+        if (node.slots.length == 2 && node.slots[1 - index] instanceof Leaf) {
+            return node.slots[1 - index];
+        }
+        Object[] slots = new Object[node.slots.length - 1];
+        System.arraycopy(node.slots, 0, slots, 0, index);
+        System.arraycopy(node.slots, index + 1, slots, index, slots.length - index);
+        return new Node(node.bitmap & ~bit, slots);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void visitAll(Object slot, Visitor<V> visitor) {
+        if (slot instanceof Leaf) {
+            Leaf<V> leaf = (Leaf<V>) slot;
+            visitor.visit(leaf.key, leaf.value);
+        } else if (slot != null) {
+            for (Object child : ((Node) slot).slots) {
+                visitAll(child, visitor);
+            }
+        }
+    }
+
+    /**
+     * Compares two subtrees at the same level, skipping them if they are shared.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> void diff(Object from, Object to, int shift, Change<V> change) {
+        if (from == to) {
+            return; // Shared by both maps, nothing changed below
+        }
+        if (from instanceof Node && to instanceof Node) {
+            Node a = (Node) from;
+            Node b = (Node) to;
+            int bits = a.bitmap | b.bitmap;
+            while (bits != 0) {
+                int bit = bits & -bits;
+                bits &= bits - 1;
+                Object childA = ((a.bitmap & bit) == 0) ? null : a.slots[a.index(bit)];
+                Object childB = ((b.bitmap & bit) == 0) ? null : b.slots[b.index(bit)];
+                diff(childA, childB, shift + BITS, change);
+            }
+            return;
+        }
+        // A leaf against a node or nothing: small subtrees, compare their entries directly
+        Map<Long, V> before = new HashMap<>();
+        visitAll(from, (key, value) -> before.put(key, (V) value));
+        visitAll(to, (key, value) -> {
+            V old = before.remove(key);
+            if (old != value) {
+                change.changed(key, old, (V) value);
+            }
+        });
+        for (Map.Entry<Long, V> entry : before.entrySet()) {
+            change.changed(entry.getKey(), entry.getValue(), null);
+        }
+    }
+
+    /**
+     * @return The bit of the node at the given level that the hash goes under.
+     */
+    private static int bit(long hash, int shift) {
+        return 1 << ((int) (hash >>> shift) & MASK);
+    }
+
+    /**
+     * Spreads the bits of a key over the whole hash (the finalizer of MurmurHash3). It is one-to-one, so different
+     * keys always have different hashes.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+
+    /**
+     * An inner node: the children for the set bits of bitmap, in bit order.
+     */
+    private static final class Node {
+        final int bitmap;
+        final Object[] slots;
+
+        Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        /**
+         * @return Where the child for a bit is (or would go) in slots.
+         */
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        /**
+         * @return A copy of the node with one child replaced.
+         */
+        Node replace(int index, Object child) {
+            Object[] copy = slots.clone();
+            copy[index] = child;
+            return new Node(bitmap, copy);
+        }
+    }
+
+
+    /**
+     * One entry of the map. Its key's hash isn't kept, since mix is cheaper than the memory for a hash per entry.
+     */
+    private static final class Leaf<V> {
+        final long key;
+        final V value;
+
+        Leaf(long key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/**
+ * The SchemaRegistry class keeps track of the attributes of the GameLoom library: which attribute columns imports
+ * have produced (in the order they first appeared, which is the column order of exports), and statistics about the
+ * values each attribute holds in the library.
+ *
+ * For each attribute the registry keeps:
+ * - How many games have a value for it (anything except empty or "N/A").
+ * - How many of those values are numbers, so the sort panel can tell numeric attributes from text ones.
+ * - An approximate count of distinct values (a HyperLogLog sketch, within a few percent).
+ * - The smallest and largest value, both as numbers and as text.
+ *
+ * Statistics are kept up to date as games enter and leave the library and as they are edited (see LibraryIndex), so
+ * they are never computed with a scan over the library. The counts are exact. The distinct count and the minimum and
+ * maximum only ever grow: a value that is edited away or deleted still counts until GameLoom restarts.
+ *
+ * Example of how this class works:
+ *     SchemaRegistry.Stats hours = SchemaRegistry.getActive().stats("hours_played");
+ *     if (hours != null && hours.isNumeric()) {
+ *         // Sort numerically
+ *     }
+ *
+ * Note: Every method can be called from any thread; imports register attributes from their background threads
+ * while the library view reads them.
+ *
+ * @see LibraryIndex
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SchemaRegistry {
+    private static final SchemaRegistry active = new SchemaRegistry(); // Registry of the GameLoom library
+
+    private final Map<String, Boolean> registered = new ConcurrentHashMap<>(); // Set of the names in columns
+    private final List<String> columns = new CopyOnWriteArrayList<>(); // Attribute columns, in the order they appeared
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+
+    /**
+     * @return The registry of the GameLoom library.
+     */
+    public static SchemaRegistry getActive() {
+        return active;
+    }
+
+
+    /**
+     * Adds an attribute to the attribute columns if it isn't already there.
+     *
+     * @param name The attribute's name.
+     */
+    public void register(String name) {
+        if (registered.putIfAbsent(name, Boolean.TRUE) == null) {
+            columns.add(name); // Only the thread that put the name adds it, so it is never listed twice
+        }
+    }
+
+    /**
+     * @return The attribute columns, in the order imports produced them. The list doesn't change afterwards.
+     */
+    public List<String> attributes() {
+        return Collections.unmodifiableList(new ArrayList<>(columns));
+    }
+
+    /**
+     * @param name An attribute's name.
+     * @return The statistics of the attribute, or null if no game in the library has ever had it.
+     */
+    public Stats stats(String name) {
+        return stats.get(name);
+    }
+
+
+    /**
+     * Adds the values of a game that entered the library to the statistics.
+     *
+     * @param game The game.
+     */
+    public void record(Game game) {
+        for (Map.Entry<String, String> entry : game.getAttributes().entrySet()) {
+            record(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes the values of a game that left the library from the statistics.
+     *
+     * @param game The game.
+     */
+    public void unrecord(Game game) {
+        for (Map.Entry<String, String> entry : game.getAttributes().entrySet()) {
+            unrecord(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Adds one value of a game in the library to the statistics.
+     *
+     * @param name The attribute's name.
+     * @param value The value.
+     */
+    public void record(String name, String value) {
+        if (!isMissing(value)) {
+            Stats attribute = stats.get(name);
+            if (attribute == null) {
+                attribute = stats.computeIfAbsent(name, k -> new Stats());
+            }
+            attribute.add(value.trim());
+        }
+    }
+
+    /**
+     * Removes one value of a game in the library from the statistics, after it was replaced or deleted.
+     *
+     * @param name The attribute's name.
+     * @param value The value.
+     */
+    public void unrecord(String name, String value) {
+        Stats attribute = stats.get(name);
+        if (attribute != null && !isMissing(value)) {
+            attribute.remove(value.trim());
+        }
+    }
+
+    /**
+     * Updates the statistics after a game's attributes were changed from before to its current attributes.
+     *
+     * @param before A copy of the game's attributes before the change.
+     * @param game The game, with its attributes after the change.
+     */
+    public void recordChanges(Map<String, String> before, Game game) {
+        Map<String, String> after = game.getAttributes();
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            if (!Objects.equals(entry.getValue(), after.get(entry.getKey()))) {
+                unrecord(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, String> entry : after.entrySet()) {
+            if (!Objects.equals(entry.getValue(), before.get(entry.getKey()))) {
+                record(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return true if a value is missing, empty, or "N/A".
+     */
+    private static boolean isMissing(String value) {
+        if (value == null) {
+            return true;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() || trimmed.equalsIgnoreCase("N/A");
+    }
+
+
+    /**
+     * The statistics of one attribute. Values are added and removed by the registry.
+     */
+    public static final class Stats {
+        private static final int SKETCH_BITS = 10; // 1,024 registers: about 3% error on the distinct count
+
+        private final LongAdder nonEmpty = new LongAdder();
+        private final LongAdder numeric = new LongAdder();
+        private final AtomicIntegerArray sketch = new AtomicIntegerArray(1 << SKETCH_BITS); // HyperLogLog registers
+        private final DoubleAccumulator numericMin = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        private final DoubleAccumulator numericMax = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+        private final AtomicReference<String> textMin = new AtomicReference<>();
+        private final AtomicReference<String> textMax = new AtomicReference<>();
+
+        private Stats() {
+        }
+
+        private void add(String value) {
+            nonEmpty.increment();
+            double number = Game.parseNumber(value);
+            if (!Double.isNaN(number)) {
+                numeric.increment();
+                numericMin.accumulate(number);
+                numericMax.accumulate(number);
+            }
+            String min, max; // Only written when the value is a new minimum or maximum, which is rare after a few values
+            while (((min = textMin.get()) == null || value.compareTo(min) < 0) && !textMin.compareAndSet(min, value)) {
+                // Another thread changed the minimum meanwhile, compare against its value
+            }
+            while (((max = textMax.get()) == null || value.compareTo(max) > 0) && !textMax.compareAndSet(max, value)) {
+                // Likewise for the maximum
+            }
+
+            long hash = mix(value.hashCode());
+            int register = (int) (hash >>> (64 - SKETCH_BITS));
+            int rank = Long.numberOfLeadingZeros((hash << SKETCH_BITS) | (1L << (SKETCH_BITS - 1))) + 1;
+            int current;
+            while (rank > (current = sketch.get(register)) && !sketch.compareAndSet(register, current, rank)) {
+                // Another thread raised the register meanwhile, try again against its value
+            }
+        }
+
+        private void remove(String value) {
+            nonEmpty.decrement();
+            if (!Double.isNaN(Game.parseNumber(value))) {
+                numeric.decrement();
+            }
+        }
+
+        /**
+         * @return How many games in the library have a value for the attribute.
+         */
+        public long getNonEmptyCount() {
+            return nonEmpty.sum();
+        }
+
+        /**
+         * @return The share of the attribute's values that are numbers, from 0 to 1 (0 if it has no values).
+         */
+        public double getNumericRatio() {
+            long values = nonEmpty.sum();
+            return (values <= 0) ? 0 : Math.min(1.0, (double) numeric.sum() / values);
+        }
+
+        /**
+         * @return true if most of the attribute's values are numbers, so it should be compared numerically.
+         */
+        public boolean isNumeric() {
+            return getNumericRatio() > 0.5;
+        }
+
+        /**
+         * @return About how many different values the attribute has had.
+         */
+        public long getDistinctEstimate() {
+            int registers = sketch.length();
+            double sum = 0;
+            int zeros = 0;
+            for (int i = 0; i < registers; i++) {
+                int rank = sketch.get(i);
+                sum += Math.scalb(1.0, -rank);
+                if (rank == 0) {
+                    zeros++;
+                }
+            }
+            double estimate = (0.7213 / (1 + 1.079 / registers)) * registers * registers / sum;
+            if (estimate <= 2.5 * registers && zeros > 0) {
+                estimate = registers * Math.log((double) registers / zeros); // Linear counting for small counts
+            }
+            return Math.round(estimate);
+        }
+
+        /**
+         * @return The smallest numeric value the attribute has had, or NaN if none were numbers.
+         */
+        public double getNumericMin() {
+            double min = numericMin.get();
+            return (min == Double.POSITIVE_INFINITY) ? Double.NaN : min;
+        }
+
+        /**
+         * @return The largest numeric value the attribute has had, or NaN if none were numbers.
+         */
+        public double getNumericMax() {
+            double max = numericMax.get();
+            return (max == Double.NEGATIVE_INFINITY) ? Double.NaN : max;
+        }
+
+        /**
+         * @return The alphabetically first value the attribute has had, or null if it had none.
+         */
+        public String getTextMin() {
+            return textMin.get();
+        }
+
+        /**
+         * @return The alphabetically last value the attribute has had, or null if it had none.
+         */
+        public String getTextMax() {
+            return textMax.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d values, %.0f%% numeric, ~%,d distinct", getNonEmptyCount(), getNumericRatio() * 100, getDistinctEstimate());
+        }
+
+        /**
+         * Spreads the bits of a String hash over 64 bits (the finalizer of MurmurHash3), as the sketch needs.
+         */
+        private static long mix(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
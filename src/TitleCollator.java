@@ -0,0 +1,115 @@
+/**
+ * The TitleCollator class folds game titles into binary collation keys, so titles sort the way people read them and
+ * two titles compare with one byte array comparison instead of string work on every comparison.
+ *
+ * A title is folded once, when it is stored (see LibraryStore.titleKey), as follows:
+ * - Leading and trailing quotes and punctuation are skipped, so "'Splosion Man" sorts under S and a quoted title
+ *   sorts before its own extensions (the closing quote of "Halo" would otherwise sort after the space of "Halo 2").
+ * - Case and diacritics are folded, and compatibility characters (full-width letters, superscript digits) are
+ *   replaced by their plain forms, so "POKEMON", "Pokemon" and Pokemon with an accented e have the same key.
+ * - Runs of digits compare by their numeric value, so "Halo 2" sorts before "Halo 10". Digits sort before letters.
+ *
+ * Keys are compared as unsigned bytes (see compare). Titles with the same key keep their order in a stable sort.
+ *
+ * Example of how this class works:
+ *     byte[] two = TitleCollator.keyOf("Halo 2");
+ *     byte[] ten = TitleCollator.keyOf("Halo 10");
+ *     TitleCollator.compare(two, ten);   // Negative, "Halo 2" comes first
+ *     TitleCollator.compare(TitleCollator.keyOf("\"Halo\""), two);   // Negative, a title comes before its extensions
+ *
+ * @see Game
+ * @see GameSorter
+ *
+ * @author GameLoom Team
+ * @version 1.0
+ */
+
+import java.util.Arrays;
+
+public class TitleCollator {
+    // Key bytes: a number is DIGITS, its digit count and its digits (leading zeros dropped); any other character is
+    // its lower case char, in 1 byte below 0x80, 2 bytes from 0x80 to 0xBF, or 3 bytes starting with 0xC0
+    private static final int DIGITS = 0x01;
+    private static final int MAX_DIGITS = 0xFF; // Longer numbers only compare correctly against shorter ones
+
+
+    /**
+     * Folds a title into its collation key.
+     *
+     * @param title A title (e.g., "\"Halo 2\"").
+     * @return The title's key.
+     */
+    public static byte[] keyOf(String title) {
+        String folded = isAscii(title) ? title : java.text.Normalizer.normalize(title, java.text.Normalizer.Form.NFKD); // Splits accents off their letters
+        int start = 0;
+        while (start < folded.length() && !Character.isLetterOrDigit(folded.charAt(start))) {
+            start++;
+        }
+        int end = folded.length();
+        while (end > start && !Character.isLetterOrDigit(folded.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            start = 0; // Nothing but punctuation, keep it all
+            end = folded.length();
+        }
+
+        byte[] key = new byte[(end - start) * 3];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = folded.charAt(i);
+            if (c >= '0' && c <= '9') {
+                int digitsEnd = i;
+                while (digitsEnd < folded.length() && folded.charAt(digitsEnd) >= '0' && folded.charAt(digitsEnd) <= '9') {
+                    digitsEnd++;
+                }
+                while (i < digitsEnd - 1 && folded.charAt(i) == '0') {
+                    i++;
+                }
+                key[length++] = (byte) DIGITS;
+                key[length++] = (byte) Math.min(digitsEnd - i, MAX_DIGITS);
+                for (; i < digitsEnd; i++) {
+                    key[length++] = (byte) folded.charAt(i);
+                }
+                i--; // The loop moves past the last digit
+                continue;
+            }
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // An accent split off by the normalization
+            }
+            c = (c < ' ') ? ' ' : Character.toLowerCase(c); // Control characters would clash with DIGITS
+            if (c < 0x80) {
+                key[length++] = (byte) c;
+            } else if (c < 0x4000) {
+                key[length++] = (byte) (0x80 | (c >> 8));
+                key[length++] = (byte) c;
+            } else {
+                key[length++] = (byte) 0xC0;
+                key[length++] = (byte) (c >> 8);
+                key[length++] = (byte) c;
+            }
+        }
+        return Arrays.copyOf(key, length);
+    }
+
+    /**
+     * Compares two keys made by keyOf.
+     *
+     * @return Negative if the first key's title sorts first, positive if the second one's does, 0 if they are alike.
+     */
+    public static int compare(byte[] key1, byte[] key2) {
+        return Arrays.compareUnsigned(key1, key2);
+    }
+
+    /**
+     * @return Whether the text has only ASCII characters, which need no normalization.
+     */
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}